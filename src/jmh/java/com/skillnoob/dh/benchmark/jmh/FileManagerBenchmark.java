@@ -0,0 +1,139 @@
+package com.skillnoob.dh.benchmark.jmh;
+
+import com.skillnoob.dh.benchmark.util.FileManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The file operations between runs, on synthetic trees in the temp directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileManagerBenchmark {
+	@State(Scope.Thread)
+	public static class ConfigFile {
+		Path dir;
+		Path file;
+
+		@Setup
+		public void setup() throws IOException {
+			dir = Files.createTempDirectory("dh-benchmark-jmh");
+			file = dir.resolve("server.properties");
+			// About the size of a generated server.properties
+			List<String> lines = new ArrayList<>();
+			lines.add("#Minecraft server properties");
+			for (int i = 0; i < 60; i++) {
+				lines.add("property-" + i + "=value-" + i);
+			}
+			lines.add("level-seed=0");
+			Files.write(file, lines, StandardCharsets.UTF_8);
+		}
+
+		@TearDown
+		public void tearDown() throws IOException {
+			FileManager.deleteDirectory(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Tree {
+		@Param({"1000"})
+		public int files;
+
+		Path dir;
+		Path tree;
+		Path copyTarget;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			dir = Files.createTempDirectory("dh-benchmark-jmh");
+			copyTarget = dir.resolve("target");
+		}
+
+		// Deleting needs a fresh tree every time, creating it isn't part of the measurement
+		@Setup(Level.Invocation)
+		public void createTree() throws IOException {
+			tree = dir.resolve("tree");
+			createFiles(tree, files);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			FileManager.deleteDirectory(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Datapacks {
+		@Param({"10"})
+		public int datapacks;
+
+		Path dir;
+		String source;
+		String target;
+
+		@Setup
+		public void setup() throws IOException {
+			dir = Files.createTempDirectory("dh-benchmark-jmh");
+			source = dir.resolve("custom-datapacks").toString();
+			target = dir.resolve("world/datapacks").toString();
+			for (int i = 0; i < datapacks; i++) {
+				createFiles(Path.of(source, "pack-" + i), 50);
+			}
+		}
+
+		@TearDown
+		public void tearDown() throws IOException {
+			FileManager.deleteDirectory(dir);
+		}
+	}
+
+	@Benchmark
+	public void updateConfigLine(ConfigFile config) throws IOException {
+		FileManager.updateConfigLine(config.file, "level-seed", "level-seed=5057296280818819649");
+	}
+
+	@Benchmark
+	public void deleteDirectory(Tree tree) throws IOException {
+		FileManager.deleteDirectory(tree.tree);
+	}
+
+	@Benchmark
+	public void copyDatapacks(Datapacks datapacks) throws IOException {
+		FileManager.copyDatapacks(datapacks.source, datapacks.target);
+	}
+
+	/**
+	 * Creates the given number of small files, spread over nested directories of 10 files each.
+	 */
+	private static void createFiles(Path root, int count) throws IOException {
+		byte[] content = new byte[512];
+		for (int i = 0; i < count; i++) {
+			Path dir = root.resolve("d" + i / 100).resolve("d" + i / 10 % 10);
+			Files.createDirectories(dir);
+			Files.write(dir.resolve("f" + i + ".dat"), content);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.skillnoob.dh.benchmark.jmh;
+
+import com.skillnoob.dh.benchmark.data.LogArchiveHeader;
+import com.skillnoob.dh.benchmark.util.FileManager;
+import com.skillnoob.dh.benchmark.util.LogArchive;
+import com.skillnoob.dh.benchmark.util.LogMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How fast the LogMonitor takes in server output, from reading the lines to handing them to the waiting thread, with and without archiving them.
+ * Scores are lines per millisecond.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogMonitorBenchmark {
+	private static final int LINES = 50_000;
+
+	@Param({"false", "true"})
+	public boolean archive;
+
+	private String log;
+	private Path tempDir;
+
+	@Setup
+	public void setup() throws IOException {
+		log = String.join("\n", SyntheticLogs.pregenLines(LINES)) + "\n";
+		tempDir = Files.createTempDirectory("dh-benchmark-jmh");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		FileManager.deleteDirectory(tempDir);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public int ingest() throws IOException, InterruptedException {
+		LogArchive.Writer writer = archive
+				? new LogArchive.Writer(tempDir.resolve("run.log.gz"), new LogArchiveHeader(LogArchive.VERSION, "jmh", "jmh", "0", 0, 256, 0, List.of(), 0))
+				: null;
+
+		int received = 0;
+		try (LogMonitor monitor = new LogMonitor(new BufferedReader(new StringReader(log)), false, writer)) {
+			while (received < LINES && monitor.pollLine(1, TimeUnit.SECONDS) != null) {
+				received++;
+			}
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		return received;
+	}
+}
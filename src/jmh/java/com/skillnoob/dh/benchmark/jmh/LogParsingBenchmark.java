@@ -0,0 +1,63 @@
+package com.skillnoob.dh.benchmark.jmh;
+
+import com.skillnoob.dh.benchmark.util.PregenLogParser;
+import com.skillnoob.dh.benchmark.util.TickLogParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-line work of a run: the pregen marker and percentage parsing, and the tick query parsing. Scores are lines per microsecond.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogParsingBenchmark {
+	private static final int LINES = 4096;
+
+	private String[] lines;
+
+	@Setup
+	public void setup() {
+		List<String> log = SyntheticLogs.pregenLines(LINES);
+		lines = log.toArray(String[]::new);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public void pregenParser(Blackhole blackhole) {
+		PregenLogParser parser = new PregenLogParser(256);
+		long nanos = 0;
+		for (String line : lines) {
+			blackhole.consume(parser.accept(nanos, line));
+			nanos += 1_000_000;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public void tickParser(Blackhole blackhole) {
+		// A new parser per invocation, so the samples of earlier invocations don't accumulate over the measurement
+		TickLogParser parser = new TickLogParser(0, 0);
+		long nanos = 0;
+		for (String line : lines) {
+			blackhole.consume(parser.accept(nanos, line));
+			nanos += 1_000_000;
+		}
+	}
+}
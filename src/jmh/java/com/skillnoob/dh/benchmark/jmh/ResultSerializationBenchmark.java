@@ -0,0 +1,115 @@
+package com.skillnoob.dh.benchmark.jmh;
+
+import com.google.gson.Gson;
+import com.skillnoob.dh.benchmark.data.BenchmarkCell;
+import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.GcSummary;
+import com.skillnoob.dh.benchmark.data.HostFingerprint;
+import com.skillnoob.dh.benchmark.data.JavaRuntime;
+import com.skillnoob.dh.benchmark.data.JournalEntry;
+import com.skillnoob.dh.benchmark.data.PregenTaskResult;
+import com.skillnoob.dh.benchmark.data.ReadBenchmarkResult;
+import com.skillnoob.dh.benchmark.data.RunKey;
+import com.skillnoob.dh.benchmark.data.Scenario;
+import com.skillnoob.dh.benchmark.data.StartupPhase;
+import com.skillnoob.dh.benchmark.data.StartupProfile;
+import com.skillnoob.dh.benchmark.data.StorageDevice;
+import com.skillnoob.dh.benchmark.data.ThermalSummary;
+import com.skillnoob.dh.benchmark.data.TickSummary;
+import com.skillnoob.dh.benchmark.util.FileManager;
+import com.skillnoob.dh.benchmark.util.ProgressJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving results: the JSON of a progress journal entry, recording it in the journal including the sync to disk, and writing the runs CSV of a campaign.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+	private static final Gson GSON = new Gson();
+	private static final int CAMPAIGN_RUNS = 100;
+
+	private Path tempDir;
+	private BenchmarkResult result;
+	private String json;
+	private ProgressJournal journal;
+	private Map<RunKey, BenchmarkResult> campaign;
+	private Map<String, BenchmarkCell> cells;
+
+	@Setup
+	public void setup() throws IOException {
+		tempDir = Files.createTempDirectory("dh-benchmark-jmh");
+		// A result with every optional measurement present, as produced by a full run
+		result = new BenchmarkResult(612_000_000_000L, 1_234_567_890L, 428, 4_567_890_123L, 12_345_678L,
+				List.of(new ReadBenchmarkResult("RANDOM", 100_000, 45_000.5, 18_000, 95_000), new ReadBenchmarkResult("SPATIAL", 100_000, 61_000.2, 12_000, 70_000)),
+				new ThermalSummary(4_800, 4_550, 4_200, 87.5, 61_200, false),
+				new GcSummary(312, 4_820.5, 660),
+				9_876_543_210L,
+				List.of(new PregenTaskResult("minecraft:overworld 0 0 256", 262_144, 612_000_000_000L)),
+				new TickSummary(4, 0.8, 0.7, 1.2, 2.5, 3.1),
+				new TickSummary(120, 14.2, 11.8, 32.4, 58.9, 96.3),
+				new JavaRuntime("/usr/lib/jvm/java-21-openjdk", 21, "21.0.5", "OpenJDK Runtime Environment (build 21.0.5+11)"),
+				new StartupProfile(Map.of(StartupPhase.JVM_LAUNCH, 850_000_000L, StartupPhase.MOD_LOADING, 4_100_000_000L, StartupPhase.DH_INIT, 1_200_000_000L,
+						StartupPhase.SERVER_INIT, 2_300_000_000L, StartupPhase.WORLD_PREPARATION, 4_400_000_000L), 12_850_000_000L),
+				HostFingerprint.of("AMD Ryzen 9 7950X 16-Core Processor", 1, 16, 32, "L1d 32K L1i 32K L2 1024K L3 32768K", 1, "performance", 66_000_000_000L,
+						"6.8.0-45-generic", "Linux", "OpenJDK 64-Bit Server VM 21.0.5+11"),
+				new StorageDevice("Samsung SSD 990 PRO 2TB", false));
+		json = GSON.toJson(new JournalEntry(JournalEntry.Type.COMPLETE, "6bc4d4b4821b0794", "5057296280818819649", 0, result, null));
+		journal = new ProgressJournal(tempDir.resolve("benchmark-progress.jsonl"));
+
+		BenchmarkCell cell = new BenchmarkCell("", Scenario.FULL, "", "", 8, "");
+		cells = Map.of("6bc4d4b4821b0794", cell);
+		campaign = new LinkedHashMap<>();
+		for (int i = 0; i < CAMPAIGN_RUNS; i++) {
+			campaign.put(new RunKey("6bc4d4b4821b0794", String.valueOf(i), 0), result);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		journal.close();
+		FileManager.deleteDirectory(tempDir);
+	}
+
+	@Benchmark
+	public String toJson() {
+		return GSON.toJson(new JournalEntry(JournalEntry.Type.COMPLETE, "6bc4d4b4821b0794", "5057296280818819649", 0, result, null));
+	}
+
+	@Benchmark
+	public JournalEntry fromJson() {
+		return GSON.fromJson(json, JournalEntry.class);
+	}
+
+	@Benchmark
+	public void recordResult() throws IOException {
+		journal.recordResult(new RunKey("6bc4d4b4821b0794", "5057296280818819649", 0), result);
+	}
+
+	@Benchmark
+	public void writeRunsCsv() throws IOException {
+		FileManager.writeRunsToCSV(tempDir.resolve("benchmark-runs.csv").toString(), campaign, cells);
+	}
+}
@@ -0,0 +1,27 @@
+package com.skillnoob.dh.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Server output that resembles a pregen run: mostly unrelated lines, with DH progress and tick query answers in between.
+ */
+public class SyntheticLogs {
+	public static List<String> pregenLines(int count) {
+		List<String> lines = new ArrayList<>(count);
+		lines.add("[12:00:00] [Server thread/INFO] [DistantHorizons/]: Starting pregen in minecraft:overworld with radius 256");
+		for (int i = 1; i < count; i++) {
+			String time = String.format(Locale.ROOT, "[%02d:%02d:%02d]", 12 + i / 3600 % 12, i / 60 % 60, i % 60);
+			lines.add(switch (i % 8) {
+				case 0 -> String.format(Locale.ROOT, "%s [DH-Pregen/INFO] [DistantHorizons/]: Generated radius: %d/256 chunks, %.1f%% done, ETA: 00:%02d:%02d",
+						time, i * 256 / count, i * 100.0 / count, (count - i) / 60 % 60, (count - i) % 60);
+				case 3 -> time + " [Server thread/INFO]: Average time per tick: 12.4ms (Target: 50.0ms)";
+				case 4 -> time + " [Server thread/INFO]: Percentiles: P50: 10.1ms P95: 30.5ms P99: 61.0ms, sample: 100";
+				case 5 -> time + " [Server thread/WARN]: Can't keep up! Is the server overloaded? Running 2034ms or 40 ticks behind";
+				default -> time + " [DH-Worker-" + i % 16 + "/INFO] [DistantHorizons/]: Saved LOD section [" + i % 512 + ", " + i / 512 + "] at detail level " + i % 4;
+			});
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,322 @@
+package com.skillnoob.dh.benchmark;
+
+import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.CgroupLimits;
+import com.skillnoob.dh.benchmark.data.PregenTaskResult;
+import com.skillnoob.dh.benchmark.data.Scenario;
+import com.skillnoob.dh.benchmark.data.StartupPhase;
+import com.skillnoob.dh.benchmark.data.StartupProfile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+
+public class CampaignReport {
+	// Below this spread between the fastest and slowest storage target, generation is considered CPU-bound.
+	private static final double STORAGE_SENSITIVITY_THRESHOLD = 0.05;
+
+	/**
+	 * Prints the average CPS of every group relative to the fastest group.
+	 * Returns the relative spread between the fastest and the slowest group.
+	 */
+	public static double printComparison(String title, Map<String, List<BenchmarkResult>> groups) {
+		Map<String, Double> averageCps = new LinkedHashMap<>();
+		groups.forEach((name, results) -> averageCps.put(name, results.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0)));
+
+		double best = averageCps.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+		double worst = averageCps.values().stream().mapToDouble(Double::doubleValue).min().orElse(0);
+
+		System.out.println(title + ":");
+		averageCps.forEach((name, cps) -> {
+			double relative = best > 0 ? (cps - best) / best * 100 : 0;
+			System.out.println(String.format("- %s: %d Cps (%+.1f%%)", name, Math.round(cps), relative));
+		});
+
+		return best > 0 ? (best - worst) / best : 0;
+	}
+
+	/**
+	 * Prints how much the generation speed depends on the storage the world is placed on.
+	 */
+	public static void printStorageSensitivity(Map<String, List<BenchmarkResult>> resultsByStorage) {
+		double spread = printComparison("Storage comparison", resultsByStorage);
+		String percentage = String.format("%.1f%%", spread * 100);
+
+		if (spread < STORAGE_SENSITIVITY_THRESHOLD) {
+			System.out.println("Cps depends on storage by only " + percentage + ", generation is CPU-bound on this host. Faster CPUs will help more than faster disks.");
+		} else {
+			System.out.println("Cps depends on storage by " + percentage + ", faster storage measurably speeds up generation on this host.");
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Splits the full generation time into vanilla world generation and LOD processing, using the LOD_ONLY scenario as the cost of the latter.
+	 */
+	public static void printScenarioBreakdown(Map<Scenario, List<BenchmarkResult>> resultsByScenario) {
+		List<BenchmarkResult> full = resultsByScenario.getOrDefault(Scenario.FULL, List.of());
+		List<BenchmarkResult> lodOnly = resultsByScenario.getOrDefault(Scenario.LOD_ONLY, List.of());
+		if (full.isEmpty() || lodOnly.isEmpty()) {
+			return;
+		}
+
+		double fullCps = full.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0);
+		double lodCps = lodOnly.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0);
+		double fullDbThroughput = full.stream().mapToDouble(BenchmarkResult::dbWriteThroughput).average().orElse(0);
+		double lodDbThroughput = lodOnly.stream().mapToDouble(BenchmarkResult::dbWriteThroughput).average().orElse(0);
+
+		System.out.println("Scenario breakdown:");
+		System.out.println(String.format("- Full generation: %d Cps, database writes %.2f MB/s", Math.round(fullCps), fullDbThroughput / (1024.0 * 1024.0)));
+		System.out.println(String.format("- LOD building only: %d Cps, database writes %.2f MB/s", Math.round(lodCps), lodDbThroughput / (1024.0 * 1024.0)));
+
+		if (fullCps > 0 && lodCps > 0) {
+			// Time per chunk of each stage, the LOD_ONLY time is contained in the full generation time.
+			double lodShare = Math.min(1, (1 / lodCps) / (1 / fullCps));
+			System.out.println(String.format("LOD building and database writes take %.1f%% of the full generation time, vanilla world generation takes %.1f%%.",
+					lodShare * 100, (1 - lodShare) * 100));
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Prints the average Cps for every set of cgroup limits, ordered by the allotted cores and memory.
+	 * The Cps per core shows where adding cores stops paying off.
+	 */
+	public static void printResourceCurve(Map<String, List<BenchmarkResult>> resultsByLimits) {
+		System.out.println("Cps by allotted resources:");
+		resultsByLimits.entrySet().stream()
+				.sorted(Comparator.<Map.Entry<String, List<BenchmarkResult>>>comparingDouble(entry -> cpusOrMax(entry.getKey()))
+						.thenComparingLong(entry -> memoryOrMax(entry.getKey())))
+				.forEach(entry -> {
+					CgroupLimits limits = CgroupLimits.parse(entry.getKey());
+					double cps = entry.getValue().stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0);
+					String perCore = limits.cpus() > 0 ? String.format(", %.1f Cps per core", cps / limits.cpus()) : "";
+					System.out.println("- " + (limits.isUnlimited() ? "unlimited" : entry.getKey()) + ": " + Math.round(cps) + " Cps" + perCore);
+				});
+		System.out.println();
+	}
+
+	/**
+	 * Prints the Cps, GC pause share and peak memory of every heap size, and recommends the smallest heap
+	 * whose Cps is within the tolerance of the best one, as larger heaps beyond that point only cost memory.
+	 * A heap with any failed run, e.g. one that ran out of memory, is shown as insufficient and never recommended.
+	 */
+	public static void printHeapSweep(Map<Integer, List<BenchmarkResult>> resultsByHeap, Map<Integer, Integer> failedRunsByHeap, double tolerancePercent) {
+		Map<Integer, Double> averageCps = new TreeMap<>();
+		resultsByHeap.forEach((ramGb, results) -> {
+			if (!failedRunsByHeap.containsKey(ramGb)) {
+				averageCps.put(ramGb, results.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0));
+			}
+		});
+		double best = averageCps.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+
+		Set<Integer> heaps = new TreeSet<>(resultsByHeap.keySet());
+		heaps.addAll(failedRunsByHeap.keySet());
+		System.out.println("Heap size sweep:");
+		for (int ramGb : heaps) {
+			List<BenchmarkResult> results = resultsByHeap.getOrDefault(ramGb, List.of());
+			StringBuilder line;
+			if (averageCps.containsKey(ramGb)) {
+				double cps = averageCps.get(ramGb);
+				double relative = best > 0 ? (cps - best) / best * 100 : 0;
+				line = new StringBuilder(String.format("- %d GB: %d Cps (%+.1f%%)", ramGb, Math.round(cps), relative));
+			} else {
+				int failed = failedRunsByHeap.get(ramGb);
+				line = new StringBuilder(String.format("- %d GB: insufficient, %d of %d runs failed", ramGb, failed, failed + results.size()));
+			}
+			results.stream().filter(result -> result.gc() != null).mapToDouble(result -> result.gc().pauseTimeSharePercent()).average()
+					.ifPresent(share -> line.append(String.format(", GC pauses %.1f%% of the time", share)));
+			results.stream().mapToLong(BenchmarkResult::peakRssBytes).filter(rss -> rss > 0).max()
+					.ifPresent(rss -> line.append(", Peak RSS ").append(Math.round(rss / (1024.0 * 1024.0))).append(" MB"));
+			System.out.println(line);
+		}
+
+		averageCps.entrySet().stream()
+				.filter(entry -> best > 0 && entry.getValue() >= best * (1 - tolerancePercent / 100))
+				.findFirst()
+				.ifPresent(entry -> System.out.println(String.format("Recommended ram_gb: %d, the smallest heap within %.1f%% of the best Cps.", entry.getKey(), tolerancePercent)));
+		System.out.println();
+	}
+
+	/**
+	 * Prints the Cps of every pregen task relative to the fastest one and its share of the pregen time,
+	 * which shows how the throughput changes when the work moves to other regions and dimensions.
+	 */
+	public static void printPregenTasks(Collection<BenchmarkResult> results) {
+		Map<String, List<PregenTaskResult>> resultsByTask = new LinkedHashMap<>();
+		long totalTaskTime = 0;
+		long totalElapsedTime = 0;
+		for (BenchmarkResult result : results) {
+			if (result.pregenTasks() == null) {
+				continue;
+			}
+			for (PregenTaskResult task : result.pregenTasks()) {
+				resultsByTask.computeIfAbsent(task.task(), name -> new ArrayList<>()).add(task);
+				totalTaskTime += task.elapsedTime();
+			}
+			totalElapsedTime += result.elapsedTime();
+		}
+		if (resultsByTask.isEmpty()) {
+			return;
+		}
+
+		Map<String, Double> averageCps = new LinkedHashMap<>();
+		resultsByTask.forEach((name, tasks) -> averageCps.put(name, tasks.stream().mapToDouble(PregenTaskResult::averageCps).average().orElse(0)));
+		double best = averageCps.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+
+		System.out.println("Pregen tasks:");
+		for (Map.Entry<String, Double> entry : averageCps.entrySet()) {
+			long taskTime = resultsByTask.get(entry.getKey()).stream().mapToLong(PregenTaskResult::elapsedTime).sum();
+			double relative = best > 0 ? (entry.getValue() - best) / best * 100 : 0;
+			double share = totalElapsedTime > 0 ? (double) taskTime / totalElapsedTime * 100 : 0;
+			System.out.println(String.format("- %s: %d Cps (%+.1f%%), %.1f%% of the pregen time", entry.getKey(), Math.round(entry.getValue()), relative, share));
+		}
+		System.out.println("All tasks: " + Math.round(results.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0)) + " Cps");
+		if (totalElapsedTime > 0) {
+			System.out.println(String.format("Switching between tasks took %.1f%% of the pregen time.", (double) (totalElapsedTime - totalTaskTime) / totalElapsedTime * 100));
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Prints the Cps and the GC pauses of every Java runtime relative to the fastest one.
+	 */
+	public static void printJdkComparison(Map<String, List<BenchmarkResult>> resultsByJdk) {
+		Map<String, Double> averageCps = new LinkedHashMap<>();
+		resultsByJdk.forEach((jdk, results) -> averageCps.put(jdk, results.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0)));
+		double best = averageCps.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+
+		System.out.println("Java runtime comparison:");
+		averageCps.forEach((jdk, cps) -> {
+			List<BenchmarkResult> results = resultsByJdk.get(jdk);
+			double relative = best > 0 ? (cps - best) / best * 100 : 0;
+			StringBuilder line = new StringBuilder(String.format("- %s", jdk));
+			results.stream().map(BenchmarkResult::javaRuntime).filter(Objects::nonNull).findFirst()
+					.ifPresent(runtime -> line.append(" [").append(runtime.description()).append("]"));
+			line.append(String.format(": %d Cps (%+.1f%%)", Math.round(cps), relative));
+			results.stream().filter(result -> result.gc() != null).mapToDouble(result -> result.gc().pauseTimeSharePercent()).average()
+					.ifPresent(share -> line.append(String.format(", GC pauses %.1f%% of the time", share)));
+			results.stream().filter(result -> result.gc() != null && result.gc().pauseCount() > 0)
+					.mapToDouble(result -> result.gc().totalPauseMillis() / result.gc().pauseCount()).average()
+					.ifPresent(pause -> line.append(String.format(", %.1f ms per pause", pause)));
+			System.out.println(line);
+		});
+		System.out.println();
+	}
+
+	/**
+	 * Compares the hosts of a campaign, given the results of every cell by host.
+	 * Workers lease whatever run is next, so the hosts are only compared over all their results if every host ran the same cells.
+	 * Otherwise the averages would mostly reflect which cells each host got, so every cell that ran on several hosts is compared on its own.
+	 */
+	public static void printHostComparison(Map<String, Map<String, List<BenchmarkResult>>> resultsByCellAndHost) {
+		Map<String, Set<String>> cellsByHost = new LinkedHashMap<>();
+		Map<String, List<BenchmarkResult>> resultsByHost = new LinkedHashMap<>();
+		resultsByCellAndHost.forEach((cell, hosts) -> hosts.forEach((host, results) -> {
+			cellsByHost.computeIfAbsent(host, h -> new HashSet<>()).add(cell);
+			resultsByHost.computeIfAbsent(host, h -> new ArrayList<>()).addAll(results);
+		}));
+		if (resultsByHost.size() < 2) {
+			return;
+		}
+
+		if (new HashSet<>(cellsByHost.values()).size() == 1) {
+			printComparison("Host comparison", resultsByHost);
+		} else {
+			List<String> sharedCells = resultsByCellAndHost.entrySet().stream().filter(cell -> cell.getValue().size() > 1).map(Map.Entry::getKey).toList();
+			if (sharedCells.isEmpty()) {
+				System.out.println("Host comparison: every cell ran on a single host only, so the hosts can't be compared.");
+			}
+			for (String cell : sharedCells) {
+				printComparison("Host comparison for " + cell, resultsByCellAndHost.get(cell));
+			}
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Prints the average duration of every startup phase of this campaign, and compares the startup time of the current setup
+	 * with the other setups in the startup history, e.g. to see whether a DH update or an extra datapack slowed down the start.
+	 * Only starts with the same cell settings are compared, as the heap, runtime, limits and storage change the startup time as well.
+	 */
+	public static void printStartup(Collection<BenchmarkResult> results, Map<String, Map<String, List<StartupProfile>>> history, String setup, List<String> cellSettings) {
+		List<StartupProfile> profiles = results.stream().map(BenchmarkResult::startup).filter(Objects::nonNull).toList();
+		if (profiles.isEmpty()) {
+			return;
+		}
+
+		double total = profiles.stream().mapToLong(StartupProfile::totalNanos).average().orElse(0);
+		System.out.println(String.format("Server startup: %.1f s on average", total / 1_000_000_000.0));
+		for (StartupPhase phase : StartupPhase.values()) {
+			profiles.stream().mapToLong(profile -> profile.duration(phase)).filter(nanos -> nanos >= 0).average()
+					.ifPresent(nanos -> System.out.println(String.format("- %s: %.1f s (%.0f%% of the startup)", phase.label(), nanos / 1_000_000_000.0,
+							total > 0 ? nanos / total * 100 : 0)));
+		}
+
+		for (String settings : cellSettings) {
+			printStartupHistory(history.getOrDefault(settings, Map.of()), setup, cellSettings.size() > 1 ? " (" + settings + ")" : "");
+		}
+		System.out.println();
+	}
+
+	private static void printStartupHistory(Map<String, List<StartupProfile>> history, String setup, String cellSuffix) {
+		List<StartupProfile> current = history.get(setup);
+		if (current != null && history.size() > 1) {
+			// Medians, as the first start after a download or reboot is much slower than the rest
+			System.out.println("Startup history" + cellSuffix + ", median of every setup:");
+			double currentMedian = median(current, StartupProfile::totalNanos);
+			history.forEach((other, starts) -> {
+				double median = median(starts, StartupProfile::totalNanos);
+				StringBuilder line = new StringBuilder(String.format("- %s: %.1f s in %d starts", other, median / 1_000_000_000.0, starts.size()));
+				if (other.equals(setup)) {
+					line.append(" (current)");
+				} else {
+					line.append(String.format(", the current setup starts %+.1f s", (currentMedian - median) / 1_000_000_000.0));
+					StartupPhase changed = null;
+					double largestChange = 0;
+					for (StartupPhase phase : StartupPhase.values()) {
+						double change = median(current, profile -> profile.duration(phase)) - median(starts, profile -> profile.duration(phase));
+						if (!Double.isNaN(change) && Math.abs(change) > Math.abs(largestChange)) {
+							changed = phase;
+							largestChange = change;
+						}
+					}
+					if (changed != null) {
+						line.append(String.format(", mostly %s %+.1f s", changed.label(), largestChange / 1_000_000_000.0));
+					}
+				}
+				System.out.println(line);
+			});
+		}
+	}
+
+	/**
+	 * The median of the values that are present, i.e. not negative, or NaN if none is.
+	 */
+	private static double median(List<StartupProfile> profiles, ToLongFunction<StartupProfile> value) {
+		long[] values = profiles.stream().mapToLong(value).filter(nanos -> nanos >= 0).sorted().toArray();
+		if (values.length == 0) {
+			return Double.NaN;
+		}
+		return values.length % 2 == 1 ? values[values.length / 2] : (values[values.length / 2 - 1] + values[values.length / 2]) / 2.0;
+	}
+
+	private static double cpusOrMax(String spec) {
+		double cpus = CgroupLimits.parse(spec).cpus();
+		return cpus > 0 ? cpus : Double.MAX_VALUE;
+	}
+
+	private static long memoryOrMax(String spec) {
+		long memory = CgroupLimits.parse(spec).memoryBytes();
+		return memory > 0 ? memory : Long.MAX_VALUE;
+	}
+}
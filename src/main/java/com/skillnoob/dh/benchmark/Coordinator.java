@@ -0,0 +1,313 @@
+package com.skillnoob.dh.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.skillnoob.dh.benchmark.data.BenchmarkCell;
+import com.skillnoob.dh.benchmark.data.BenchmarkConfig;
+import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.Lease;
+import com.skillnoob.dh.benchmark.data.RunKey;
+import com.skillnoob.dh.benchmark.data.WorkerInfo;
+import com.skillnoob.dh.benchmark.util.ProgressJournal;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out the runs of a campaign to workers over HTTP and collects their results.
+ * Endpoints, all with JSON bodies:
+ * POST /lease with a {@link WorkerInfo} returns a {@link Lease}, 204 if all remaining runs are leased, or 410 once the campaign is complete.
+ * POST /heartbeat/{leaseId} renews a lease, 410 if it already expired.
+ * POST /result/{leaseId} with a {@link BenchmarkResult} completes the run of the lease.
+ * POST /failure/{leaseId} with a message reports that the run of the lease didn't produce a result. It isn't handed out again until the coordinator is resumed.
+ * GET /status returns the progress of the campaign.
+ * A lease that isn't renewed in time, e.g. because the worker crashed, is handed out again. A late result of an expired lease is still accepted,
+ * as long as no other worker finished the run first.
+ */
+public class Coordinator {
+	private static final Gson GSON = new Gson();
+
+	private final BenchmarkConfig config;
+	private final Map<String, BenchmarkCell> cells;
+	private final List<RunKey> plannedRuns;
+	private final ProgressJournal journal;
+	private final Map<RunKey, BenchmarkResult> completedRuns;
+	private final Deque<RunKey> pending = new ArrayDeque<>();
+	private final Map<String, ActiveLease> activeLeases = new HashMap<>();
+	// Every lease ever handed out, so a late result can still be matched to its run
+	private final Map<String, ActiveLease> issuedLeases = new HashMap<>();
+	private final Map<RunKey, WorkerInfo> workersByRun = new LinkedHashMap<>();
+	private final Map<RunKey, String> failedRuns = new LinkedHashMap<>();
+	private final CountDownLatch complete = new CountDownLatch(1);
+
+	private record ActiveLease(RunKey key, WorkerInfo worker, long expiresAtNanos) {
+	}
+
+	/**
+	 * Creates a coordinator for the runs that aren't completed yet. Completed results are recorded to the journal.
+	 */
+	public Coordinator(BenchmarkConfig config, Map<String, BenchmarkCell> cells, List<RunKey> plannedRuns, ProgressJournal journal, Map<RunKey, BenchmarkResult> completedRuns) {
+		this.config = config;
+		this.cells = cells;
+		this.plannedRuns = plannedRuns;
+		this.journal = journal;
+		this.completedRuns = completedRuns;
+		for (RunKey key : plannedRuns) {
+			if (!completedRuns.containsKey(key)) {
+				pending.add(key);
+			}
+		}
+	}
+
+	/**
+	 * Serves the campaign on the given port until every run is completed.
+	 * Workers that poll afterward are told the campaign is complete for a grace period before the server stops.
+	 */
+	public void serve(int port, long gracePeriodSeconds) throws IOException, InterruptedException {
+		HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/lease", exchange -> handle(exchange, "POST", this::lease));
+		server.createContext("/heartbeat/", exchange -> handle(exchange, "POST", this::heartbeat));
+		server.createContext("/result/", exchange -> handle(exchange, "POST", this::result));
+		server.createContext("/failure/", exchange -> handle(exchange, "POST", this::failure));
+		server.createContext("/status", exchange -> handle(exchange, "GET", this::status));
+		server.start();
+
+		System.out.println("Coordinator listening on port " + server.getAddress().getPort() + ", " + pending.size() + " of " + plannedRuns.size() + " runs to go.");
+		synchronized (this) {
+			if (pending.isEmpty() && activeLeases.isEmpty()) {
+				complete.countDown();
+			}
+		}
+
+		complete.await();
+		System.out.println("All runs are finished, waiting " + gracePeriodSeconds + " seconds for the workers to notice.");
+		Thread.sleep(TimeUnit.SECONDS.toMillis(gracePeriodSeconds));
+		server.stop(1);
+	}
+
+	/**
+	 * Gets the worker every run of this session was completed by. Runs completed before a resume aren't included.
+	 */
+	public synchronized Map<RunKey, WorkerInfo> workersByRun() {
+		return new LinkedHashMap<>(workersByRun);
+	}
+
+	/**
+	 * Gets the reason of every run that failed in this session and wasn't completed by another worker afterward.
+	 */
+	public synchronized Map<RunKey, String> failedRuns() {
+		return new LinkedHashMap<>(failedRuns);
+	}
+
+	private synchronized Response lease(HttpExchange exchange, String body) {
+		WorkerInfo worker = GSON.fromJson(body, WorkerInfo.class);
+		if (worker == null || worker.workerId() == null) {
+			return message(400, "Missing worker info");
+		}
+
+		expireLeases();
+		if (pending.isEmpty()) {
+			return activeLeases.isEmpty() ? message(410, "Campaign complete") : new Response(204, null);
+		}
+
+		RunKey key = pending.poll();
+		String leaseId = UUID.randomUUID().toString();
+		ActiveLease lease = new ActiveLease(key, worker, System.nanoTime() + leaseNanos());
+		activeLeases.put(leaseId, lease);
+		issuedLeases.put(leaseId, lease);
+		try {
+			journal.recordStart(key);
+		} catch (IOException e) {
+			System.err.println("Error recording the start of a run in the progress journal:");
+			e.printStackTrace();
+		}
+
+		System.out.println("Leased " + formatRun(key) + " to " + worker.workerId() + " (" + worker.hostname() + ")");
+		return new Response(200, GSON.toJson(new Lease(leaseId, key.configHash(), key.seed(), key.repetition(), cells.get(key.configHash()), config, config.workerLeaseSeconds())));
+	}
+
+	private synchronized Response heartbeat(HttpExchange exchange, String body) {
+		String leaseId = pathParameter(exchange);
+		expireLeases();
+
+		ActiveLease lease = activeLeases.get(leaseId);
+		if (lease == null) {
+			return message(410, "Lease expired");
+		}
+		activeLeases.put(leaseId, new ActiveLease(lease.key(), lease.worker(), System.nanoTime() + leaseNanos()));
+		return new Response(204, null);
+	}
+
+	private synchronized Response result(HttpExchange exchange, String body) {
+		String leaseId = pathParameter(exchange);
+		ActiveLease lease = issuedLeases.get(leaseId);
+		if (lease == null) {
+			return message(404, "Unknown lease");
+		}
+
+		BenchmarkResult result = GSON.fromJson(body, BenchmarkResult.class);
+		if (result == null) {
+			return message(400, "Missing result");
+		}
+
+		RunKey key = lease.key();
+		if (completedRuns.containsKey(key)) {
+			activeLeases.remove(leaseId);
+			System.out.println("Ignoring a duplicate result for " + formatRun(key) + " from " + lease.worker().workerId());
+			return message(200, "Duplicate");
+		}
+
+		try {
+			journal.recordResult(key, result);
+		} catch (IOException e) {
+			System.err.println("Error recording a result in the progress journal:");
+			e.printStackTrace();
+			return message(500, "Journal error");
+		}
+		pending.remove(key);
+		// Another worker may still hold an expired and reissued lease of the same run, which is now pointless
+		activeLeases.values().removeIf(active -> active.key().equals(key));
+		completedRuns.put(key, result);
+		failedRuns.remove(key);
+		workersByRun.put(key, lease.worker());
+		System.out.println("Completed " + formatRun(key) + " on " + lease.worker().workerId() + ": Cps: " + result.averageCps()
+				+ " (" + completedRuns.size() + " of " + plannedRuns.size() + " runs)");
+
+		if (pending.isEmpty() && activeLeases.isEmpty()) {
+			complete.countDown();
+		}
+		return message(200, "OK");
+	}
+
+	private synchronized Response failure(HttpExchange exchange, String body) {
+		String leaseId = pathParameter(exchange);
+		ActiveLease lease = issuedLeases.get(leaseId);
+		if (lease == null) {
+			return message(404, "Unknown lease");
+		}
+
+		Map<?, ?> failure = GSON.fromJson(body, Map.class);
+		String reason = failure != null && failure.get("message") instanceof String message ? message : "unknown";
+		RunKey key = lease.key();
+		activeLeases.remove(leaseId);
+		if (completedRuns.containsKey(key)) {
+			System.out.println("Ignoring a failure of " + formatRun(key) + " from " + lease.worker().workerId() + ", it was already completed.");
+			return message(200, "Duplicate");
+		}
+
+		try {
+			journal.recordFailure(key, reason);
+		} catch (IOException e) {
+			System.err.println("Error recording a failure in the progress journal:");
+			e.printStackTrace();
+			return message(500, "Journal error");
+		}
+		// Repeating it right away would most likely fail the same way, e.g. a heap that is too small, so it is only repeated on resume
+		pending.remove(key);
+		activeLeases.values().removeIf(active -> active.key().equals(key));
+		failedRuns.put(key, reason);
+		System.out.println("Failed " + formatRun(key) + " on " + lease.worker().workerId() + ": " + reason);
+
+		if (pending.isEmpty() && activeLeases.isEmpty()) {
+			complete.countDown();
+		}
+		return message(200, "OK");
+	}
+
+	private synchronized Response status(HttpExchange exchange, String body) {
+		expireLeases();
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("planned", plannedRuns.size());
+		status.put("completed", completedRuns.size());
+		status.put("failed", failedRuns.size());
+		status.put("leased", activeLeases.size());
+		status.put("pending", pending.size());
+		return new Response(200, GSON.toJson(status));
+	}
+
+	/**
+	 * Puts the runs of leases that weren't renewed in time back to the front of the queue.
+	 */
+	private void expireLeases() {
+		long now = System.nanoTime();
+		Iterator<Map.Entry<String, ActiveLease>> iterator = activeLeases.entrySet().iterator();
+		while (iterator.hasNext()) {
+			ActiveLease lease = iterator.next().getValue();
+			if (now - lease.expiresAtNanos() > 0) {
+				iterator.remove();
+				if (!completedRuns.containsKey(lease.key())) {
+					System.out.println("Lease of " + formatRun(lease.key()) + " on " + lease.worker().workerId() + " expired, handing it out again.");
+					pending.addFirst(lease.key());
+				}
+			}
+		}
+	}
+
+	private long leaseNanos() {
+		return TimeUnit.SECONDS.toNanos(config.workerLeaseSeconds());
+	}
+
+	private String formatRun(RunKey key) {
+		return cells.get(key.configHash()).label() + ", seed " + key.seed() + ", repetition " + (key.repetition() + 1);
+	}
+
+	private static String pathParameter(HttpExchange exchange) {
+		String path = exchange.getRequestURI().getPath();
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	private record Response(int status, String body) {
+	}
+
+	private static Response message(int status, String message) {
+		return new Response(status, GSON.toJson(Map.of("message", message)));
+	}
+
+	@FunctionalInterface
+	private interface Handler {
+		Response handle(HttpExchange exchange, String body);
+	}
+
+	private static void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+		try (exchange) {
+			Response response;
+			if (!exchange.getRequestMethod().equals(method)) {
+				response = message(405, "Method not allowed");
+			} else {
+				try (InputStream input = exchange.getRequestBody()) {
+					response = handler.handle(exchange, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+				} catch (JsonParseException e) {
+					response = message(400, "Invalid JSON: " + e.getMessage());
+				}
+			}
+
+			if (response.body() == null) {
+				exchange.sendResponseHeaders(response.status(), -1);
+				return;
+			}
+			byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(response.status(), bytes.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(bytes);
+			}
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.skillnoob.dh.benchmark;
+
+/**
+ * Exit codes of the benchmark, so a scheduler can tell apart why a run on a host didn't produce results.
+ */
+public class ExitCode {
+	public static final int SUCCESS = 0;
+	// Any error during the benchmark itself, e.g. a server that failed to start or an I/O error
+	public static final int FAILURE = 1;
+	public static final int USAGE = 2;
+	public static final int EULA_NOT_ACCEPTED = 3;
+	// The configuration is invalid, or requires something this host doesn't support
+	public static final int INVALID_CONFIG = 4;
+	// --resume was given, but the unfinished progress was recorded with a different configuration
+	public static final int PROGRESS_MISMATCH = 5;
+	// The campaign went through, but some runs didn't produce a result, e.g. because the server ran out of memory. --resume repeats them
+	public static final int RUNS_FAILED = 6;
+}
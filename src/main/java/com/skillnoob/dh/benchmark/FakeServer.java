@@ -0,0 +1,302 @@
+package com.skillnoob.dh.benchmark;
+
+import com.skillnoob.dh.benchmark.data.BenchmarkConfig;
+import com.skillnoob.dh.benchmark.data.PregenTask;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A stand-in for the Fabric server with Distant Horizons, to test and measure the harness without minutes of world generation.
+ * It answers the commands the harness sends on stdin ("dh config", "dh pregen start", "tick query" and "stop") with log output in the format of the real server,
+ * generates chunks at a fixed rate while printing unrelated log lines at a configurable volume, and writes the generated LODs to a real SQLite database
+ * with the FullData table of Distant Horizons, so the database analysis and read benchmark work on it too.
+ * Runs are deterministic for a given level-seed, so the timing the harness measures can be compared against the exact timing of the fake server.
+ */
+public class FakeServer {
+	private static final String PROPERTIES_FILE = "server.properties";
+	private static final String WORLD_DIR = "world";
+	private static final String DB_FILE = "DistantHorizons.sqlite";
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+	// A full data section of DH covers 64x64 blocks, which are 4x4 chunks
+	private static final int SECTION_CHUNKS = 4;
+	private static final int SECTION_DETAIL_LEVEL = 6;
+	private static final long STEP_MILLIS = 50;
+	private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+	private static final int DEFAULT_CPS = 2000;
+	private static final int DEFAULT_LOG_LINES_PER_SECOND = 1000;
+	private static final int DEFAULT_BYTES_PER_CHUNK = 256;
+
+	// Buffered, so high log volumes aren't limited by a flush per line
+	private final PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false, StandardCharsets.UTF_8);
+	private final int chunksPerSecond;
+	private final int logLinesPerSecond;
+	private final int bytesPerChunk;
+	private final Random random;
+	private final Random tickRandom;
+	private volatile Thread pregenThread = null;
+	private volatile boolean pregenRunning = false;
+
+	private FakeServer(int chunksPerSecond, int logLinesPerSecond, int bytesPerChunk, long seed) {
+		this.chunksPerSecond = Math.max(1, chunksPerSecond);
+		this.logLinesPerSecond = Math.max(0, logLinesPerSecond);
+		this.bytesPerChunk = Math.max(1, bytesPerChunk);
+		this.random = new Random(seed);
+		this.tickRandom = new Random(seed);
+	}
+
+	/**
+	 * The arguments the harness starts the fake server with, instead of "-jar fabric-server.jar".
+	 * The classpath of the harness is reused with absolute paths, as the server runs in its own directory.
+	 */
+	public static List<String> startArguments(BenchmarkConfig config) {
+		String classPath = Stream.of(System.getProperty("java.class.path").split(File.pathSeparator))
+				.map(entry -> Paths.get(entry).toAbsolutePath().toString())
+				.collect(Collectors.joining(File.pathSeparator));
+		return List.of("-cp", classPath, FakeServer.class.getName(),
+				"--cps", String.valueOf(config.fakeServerCps()),
+				"--log-lines-per-second", String.valueOf(config.fakeServerLogLinesPerSecond()));
+	}
+
+	public static void main(String[] args) throws IOException {
+		int cps = DEFAULT_CPS;
+		int logLinesPerSecond = DEFAULT_LOG_LINES_PER_SECOND;
+		int bytesPerChunk = DEFAULT_BYTES_PER_CHUNK;
+		for (int i = 0; i + 1 < args.length; i++) {
+			switch (args[i]) {
+				case "--cps" -> cps = Integer.parseInt(args[++i]);
+				case "--log-lines-per-second" -> logLinesPerSecond = Integer.parseInt(args[++i]);
+				case "--bytes-per-chunk" -> bytesPerChunk = Integer.parseInt(args[++i]);
+				default -> {
+				}
+			}
+		}
+
+		long start = System.nanoTime();
+		String seed = prepareFiles();
+		FakeServer server = new FakeServer(cps, logLinesPerSecond, bytesPerChunk, seed.hashCode());
+		server.log("main", "Loading Minecraft 1.21.1 with Fabric Loader (fake server)");
+		server.log("main", "[DistantHorizons/]", "Initializing fake Distant Horizons");
+		server.log("Server thread", "Starting minecraft server version 1.21.1 (fake server, " + cps + " chunks/s, " + logLinesPerSecond + " log lines/s)");
+		server.log("Server thread", "Preparing level \"" + WORLD_DIR + "\"");
+		server.log("Server thread", String.format(Locale.ROOT, "Done (%.3fs)! For help, type \"help\"", (System.nanoTime() - start) / 1_000_000_000.0));
+		server.flush();
+		server.run();
+	}
+
+	/**
+	 * Writes the files the real server creates on its first start, and gets the level seed.
+	 */
+	private static String prepareFiles() throws IOException {
+		Path properties = Paths.get(PROPERTIES_FILE);
+		if (!Files.exists(properties)) {
+			Files.write(properties, List.of("#Minecraft server properties", "level-name=" + WORLD_DIR, "level-seed=", "server-port=25565", "white-list=false"),
+					StandardCharsets.UTF_8);
+		}
+		Files.createDirectories(Paths.get(WORLD_DIR, "datapacks"));
+		Path levelFile = Paths.get(WORLD_DIR, "level.dat");
+		if (!Files.exists(levelFile)) {
+			Files.write(levelFile, new byte[0]);
+		}
+
+		return Files.readAllLines(properties, StandardCharsets.UTF_8).stream()
+				.filter(line -> line.startsWith("level-seed="))
+				.map(line -> line.substring("level-seed=".length()).trim())
+				.findFirst().orElse("");
+	}
+
+	private void run() throws IOException {
+		BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		String command;
+		while ((command = input.readLine()) != null) {
+			command = command.trim();
+			if (command.equals("stop")) {
+				break;
+			}
+
+			if (command.startsWith("dh config ")) {
+				String[] parts = command.split("\\s+", 4);
+				log("Server thread", "[DistantHorizons/]", parts.length == 4 ? "Set " + parts[2] + " to " + parts[3] : "Missing config value");
+			} else if (command.startsWith("dh pregen start ")) {
+				startPregen(command.substring("dh pregen start ".length()));
+			} else if (command.equals("tick query")) {
+				tickQuery();
+			} else if (!command.isEmpty()) {
+				log("Server thread", "Unknown or incomplete command, see below for error");
+			}
+			flush();
+		}
+
+		log("Server thread", "Stopping server");
+		stopPregen();
+		log("Server thread", "Saving worlds");
+		flush();
+		System.exit(0);
+	}
+
+	private synchronized void startPregen(String spec) {
+		if (pregenRunning) {
+			log("Server thread", "[DistantHorizons/]", "Pregen is already running");
+			return;
+		}
+
+		PregenTask task;
+		try {
+			task = PregenTask.parse(spec);
+		} catch (IllegalArgumentException e) {
+			log("Server thread", "[DistantHorizons/]", e.getMessage());
+			return;
+		}
+
+		pregenRunning = true;
+		pregenThread = new Thread(() -> {
+			try {
+				pregen(task);
+			} catch (SQLException | IOException e) {
+				log("DH-Pregen", "[DistantHorizons/]", "Pregen failed: " + e);
+			} catch (InterruptedException ignored) {
+			} finally {
+				pregenRunning = false;
+				flush();
+			}
+		}, "DH-Pregen");
+		pregenThread.start();
+	}
+
+	private void stopPregen() {
+		Thread thread = pregenThread;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException ignored) {
+			}
+		}
+	}
+
+	/**
+	 * Generates the sections of the task at the configured rate, writing them to the database of the task's dimension.
+	 */
+	private void pregen(PregenTask task) throws SQLException, IOException, InterruptedException {
+		Path dataDir = switch (task.dimension()) {
+			case "minecraft:the_nether" -> Paths.get(WORLD_DIR, "DIM-1", "data");
+			case "minecraft:the_end" -> Paths.get(WORLD_DIR, "DIM1", "data");
+			default -> Paths.get(WORLD_DIR, "data");
+		};
+		Files.createDirectories(dataDir);
+
+		int sectionsPerSide = Math.max(1, task.radius() * 2 / SECTION_CHUNKS);
+		long totalSections = (long) sectionsPerSide * sectionsPerSide;
+		long totalChunks = Math.round(task.chunks());
+		int firstSectionX = Math.floorDiv(task.centerX() >> 4, SECTION_CHUNKS) - sectionsPerSide / 2;
+		int firstSectionZ = Math.floorDiv(task.centerZ() >> 4, SECTION_CHUNKS) - sectionsPerSide / 2;
+		byte[] data = new byte[SECTION_CHUNKS * SECTION_CHUNKS * bytesPerChunk];
+
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dataDir.resolve(DB_FILE))) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("PRAGMA journal_mode=WAL");
+				statement.execute("CREATE TABLE IF NOT EXISTS FullData (DetailLevel TINYINT NOT NULL, PosX INT NOT NULL, PosZ INT NOT NULL, Data BLOB NULL, "
+						+ "PRIMARY KEY (DetailLevel, PosX, PosZ))");
+			}
+			connection.setAutoCommit(false);
+
+			log("DH-Pregen", "[DistantHorizons/]", "Starting pregen in " + task.dimension() + " at " + task.centerX() + " " + task.centerZ() + " with radius " + task.radius());
+			flush();
+
+			long start = System.nanoTime();
+			long lastProgress = start;
+			long linesLogged = 0;
+			long sectionsDone = 0;
+			try (PreparedStatement insert = connection.prepareStatement("INSERT OR REPLACE INTO FullData (DetailLevel, PosX, PosZ, Data) VALUES (?, ?, ?, ?)")) {
+				while (sectionsDone < totalSections) {
+					Thread.sleep(STEP_MILLIS);
+					long now = System.nanoTime();
+					double seconds = (now - start) / 1_000_000_000.0;
+
+					long sectionsDue = Math.min(totalSections, (long) (seconds * chunksPerSecond / (SECTION_CHUNKS * SECTION_CHUNKS)));
+					for (; sectionsDone < sectionsDue; sectionsDone++) {
+						random.nextBytes(data);
+						insert.setInt(1, SECTION_DETAIL_LEVEL);
+						insert.setInt(2, firstSectionX + (int) (sectionsDone % sectionsPerSide));
+						insert.setInt(3, firstSectionZ + (int) (sectionsDone / sectionsPerSide));
+						insert.setBytes(4, data);
+						insert.addBatch();
+					}
+					insert.executeBatch();
+					connection.commit();
+
+					long linesDue = (long) (seconds * logLinesPerSecond);
+					for (; linesLogged < linesDue; linesLogged++) {
+						log("DH-Worker-" + linesLogged % 8, "[DistantHorizons/]", "Saved LOD section [" + linesLogged % 512 + ", " + linesLogged / 512 + "] at detail level " + SECTION_DETAIL_LEVEL);
+					}
+
+					if (now - lastProgress >= PROGRESS_INTERVAL_MILLIS * 1_000_000 && sectionsDone < totalSections) {
+						double fraction = (double) sectionsDone / totalSections;
+						log("DH-Pregen", "[DistantHorizons/]", String.format(Locale.ROOT, "Generated radius: %d/%d chunks, %.1f%% done, %d chunks/s",
+								Math.round(Math.sqrt(fraction) * task.radius()), task.radius(), fraction * 100, chunksPerSecond));
+						lastProgress = now;
+					}
+					flush();
+				}
+			}
+
+			log("DH-Pregen", "[DistantHorizons/]", String.format(Locale.ROOT, "Pregen is complete, generated %d chunks in %.3fs", totalChunks, (System.nanoTime() - start) / 1_000_000_000.0));
+		}
+	}
+
+	/**
+	 * Answers like the vanilla tick command. Ticks get slower and less even while a pregen runs.
+	 */
+	private synchronized void tickQuery() {
+		boolean loaded = pregenRunning;
+		double average = (loaded ? 4.0 : 0.6) * (0.9 + tickRandom.nextDouble() * 0.2);
+		log("Server thread", "The game is running normally");
+		log("Server thread", "Target tick rate: 20.0 per second.");
+		// The real server logs this as a single message with a line break, so the second line has no prefix
+		synchronized (out) {
+			out.println(String.format(Locale.ROOT, "Average time per tick: %.1fms (Target: 50.0ms)", average));
+		}
+		log("Server thread", String.format(Locale.ROOT, "Percentiles: P50: %.1fms P95: %.1fms P99: %.1fms, sample: 100",
+				average * 0.8, average * (loaded ? 2.5 : 1.5), average * (loaded ? 6 : 2)));
+	}
+
+	private void log(String thread, String message) {
+		log(thread, "", message);
+	}
+
+	private void log(String thread, String logger, String message) {
+		String prefix = "[" + LocalTime.now().format(TIME_FORMAT) + "] [" + thread + "/INFO]";
+		synchronized (out) {
+			out.println(prefix + (logger.isEmpty() ? "" : " " + logger) + ": " + message);
+		}
+	}
+
+	private void flush() {
+		synchronized (out) {
+			out.flush();
+		}
+	}
+}
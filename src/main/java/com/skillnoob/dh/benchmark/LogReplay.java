@@ -0,0 +1,125 @@
+package com.skillnoob.dh.benchmark;
+
+import com.skillnoob.dh.benchmark.data.LogArchiveHeader;
+import com.skillnoob.dh.benchmark.data.TickSummary;
+import com.skillnoob.dh.benchmark.util.LogArchive;
+import com.skillnoob.dh.benchmark.util.PregenLogParser;
+import com.skillnoob.dh.benchmark.util.StartupLogParser;
+import com.skillnoob.dh.benchmark.util.TickLogParser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Re-evaluates archived server logs with the same parsers the live runs use, so the log-derived metrics of old runs
+ * can be recomputed after a parser fix or when a new metric is added.
+ * Archives are streamed line by line and the results are written as they are computed, so memory use doesn't grow with the log size.
+ */
+public class LogReplay {
+	private static final String RESULTS_FILE = "benchmark-replay.csv";
+	private static final String PROGRESS_FILE = "benchmark-replay-progress.csv";
+
+	/**
+	 * Replays a single archive, or every archive in a directory, and writes the results to the output directory.
+	 */
+	public static void run(Path path, Path outputDir) throws IOException {
+		List<Path> archives;
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> files = Files.list(path)) {
+				archives = files.filter(file -> file.getFileName().toString().endsWith(".log.gz")).sorted().toList();
+			}
+		} else {
+			archives = List.of(path);
+		}
+
+		if (archives.isEmpty()) {
+			System.err.println("No log archives found in " + path);
+			return;
+		}
+
+		Path resultsFile = outputDir.resolve(RESULTS_FILE);
+		Path progressFile = outputDir.resolve(PROGRESS_FILE);
+		try (PrintWriter results = new PrintWriter(resultsFile.toFile()); PrintWriter progress = new PrintWriter(progressFile.toFile())) {
+			results.println("archive,cell,config_hash,seed,repetition,started_at_millis,lines,completed,elapsed_seconds,cps,startup_seconds,idle_mspt,pregen_mspt,pregen_tick_p99_ms");
+			progress.println("archive,seconds_since_pregen_start,progress_percent,interval_cps");
+
+			for (Path archive : archives) {
+				replay(archive, results, progress);
+			}
+		}
+		System.out.println("Replayed " + archives.size() + " log archives, results saved to " + resultsFile + " and " + progressFile);
+	}
+
+	private static void replay(Path archive, PrintWriter results, PrintWriter progress) throws IOException {
+		String name = archive.getFileName().toString();
+		long lines = 0;
+
+		try (LogArchive.Reader reader = new LogArchive.Reader(archive)) {
+			LogArchiveHeader header = reader.header();
+			PregenLogParser parser = new PregenLogParser(header.resolvePregenTasks());
+			// The archive is opened right before the server is launched, so its times are close to the times since the launch
+			StartupLogParser startup = new StartupLogParser(0);
+			// The idle baseline is measured between the server start and the pregen, the pregen phase starts with its first task
+			int tickInterval = header.tickQueryIntervalSeconds();
+			TickLogParser idleTicks = null;
+			TickLogParser pregenTicks = null;
+
+			LogArchive.ArchivedLine line;
+			while ((line = reader.next()) != null) {
+				lines++;
+				if (!startup.done() && startup.accept(line.nanos(), line.line()) && tickInterval > 0) {
+					idleTicks = new TickLogParser(line.nanos(), tickInterval);
+				}
+				if (pregenTicks != null) {
+					if (!parser.complete()) {
+						pregenTicks.accept(line.nanos(), line.line());
+					}
+				} else if (idleTicks != null) {
+					idleTicks.accept(line.nanos(), line.line());
+				}
+
+				PregenLogParser.Event event = parser.accept(line.nanos(), line.line());
+				if (event == PregenLogParser.Event.STARTED && pregenTicks == null && tickInterval > 0) {
+					pregenTicks = new TickLogParser(line.nanos(), tickInterval);
+				}
+				if (event == PregenLogParser.Event.PROGRESS) {
+					progress.println(String.join(",",
+							name,
+							String.format(Locale.ROOT, "%.3f", (line.nanos() - parser.startNanos()) / 1_000_000_000.0),
+							String.format(Locale.ROOT, "%.2f", parser.progressPercent()),
+							parser.intervalCps() >= 0 ? String.format(Locale.ROOT, "%.1f", parser.intervalCps()) : ""
+					));
+				}
+			}
+
+			TickSummary idle = idleTicks != null ? idleTicks.summarize() : null;
+			TickSummary pregen = pregenTicks != null ? pregenTicks.summarize() : null;
+			results.println(String.join(",",
+					name,
+					"\"" + header.cell() + "\"",
+					header.configHash(),
+					header.seed(),
+					String.valueOf(header.repetition() + 1),
+					String.valueOf(header.startedAtMillis()),
+					String.valueOf(lines),
+					String.valueOf(parser.complete()),
+					String.format(Locale.ROOT, "%.3f", parser.elapsedNanos() / 1_000_000_000.0),
+					String.valueOf(parser.averageCps()),
+					startup.done() ? String.format(Locale.ROOT, "%.3f", startup.profile().totalNanos() / 1_000_000_000.0) : "",
+					idle != null ? String.format(Locale.ROOT, "%.2f", idle.averageMspt()) : "",
+					pregen != null ? String.format(Locale.ROOT, "%.2f", pregen.averageMspt()) : "",
+					pregen != null ? String.format(Locale.ROOT, "%.2f", pregen.p99Ms()) : ""
+			));
+			System.out.println(name + ": " + (parser.complete()
+					? "Elapsed Time: " + Main.formatDuration(parser.elapsedNanos()) + ", Cps: " + parser.averageCps()
+					: "pregen did not complete") + " (" + lines + " lines)");
+		} catch (IOException e) {
+			System.err.println("Skipping " + name + ": " + e.getMessage());
+		}
+	}
+}
@@ -1,29 +1,74 @@
 package com.skillnoob.dh.benchmark;
 
+import com.skillnoob.dh.benchmark.data.BenchmarkCell;
 import com.skillnoob.dh.benchmark.data.BenchmarkConfig;
 import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.CliOptions;
+import com.skillnoob.dh.benchmark.data.CpuTopology;
+import com.skillnoob.dh.benchmark.data.DatabaseAnalysis;
+import com.skillnoob.dh.benchmark.data.GcSummary;
+import com.skillnoob.dh.benchmark.data.HostFingerprint;
+import com.skillnoob.dh.benchmark.data.Lease;
+import com.skillnoob.dh.benchmark.data.JavaRuntime;
+import com.skillnoob.dh.benchmark.data.LogArchiveHeader;
+import com.skillnoob.dh.benchmark.data.PregenTask;
+import com.skillnoob.dh.benchmark.data.PregenTaskResult;
+import com.skillnoob.dh.benchmark.data.ReadBenchmarkResult;
+import com.skillnoob.dh.benchmark.data.RunKey;
+import com.skillnoob.dh.benchmark.data.Scenario;
+import com.skillnoob.dh.benchmark.data.StartupProfile;
+import com.skillnoob.dh.benchmark.data.ThermalSummary;
+import com.skillnoob.dh.benchmark.data.TickSummary;
+import com.skillnoob.dh.benchmark.data.WorkerInfo;
+import com.skillnoob.dh.benchmark.util.CgroupLauncher;
+import com.skillnoob.dh.benchmark.util.CoordinatorClient;
+import com.skillnoob.dh.benchmark.util.CpuPlacement;
+import com.skillnoob.dh.benchmark.util.DatabaseAnalyzer;
 import com.skillnoob.dh.benchmark.util.DownloadManager;
 import com.skillnoob.dh.benchmark.util.FileManager;
+import com.skillnoob.dh.benchmark.util.GcLogParser;
 import com.skillnoob.dh.benchmark.util.HardwareInfo;
+import com.skillnoob.dh.benchmark.util.HostFingerprints;
+import com.skillnoob.dh.benchmark.util.JavaRuntimes;
+import com.skillnoob.dh.benchmark.util.LodReadBenchmark;
+import com.skillnoob.dh.benchmark.util.LogArchive;
 import com.skillnoob.dh.benchmark.util.NoFractionProgressBarRenderer;
+import com.skillnoob.dh.benchmark.util.PregenLogParser;
+import com.skillnoob.dh.benchmark.util.ProcessStats;
+import com.skillnoob.dh.benchmark.util.ProgressJournal;
+import com.skillnoob.dh.benchmark.util.ThermalSampler;
+import com.skillnoob.dh.benchmark.util.TickSampler;
+import com.skillnoob.dh.benchmark.util.TraceRecorder;
+import com.skillnoob.dh.benchmark.util.WorldSnapshot;
 import me.tongfei.progressbar.ProgressBar;
 import me.tongfei.progressbar.ProgressBarBuilder;
 import me.tongfei.progressbar.ProgressBarStyle;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Scanner;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class Main {
 	private static final String SERVER_DIR = "server";
@@ -32,187 +77,762 @@ public class Main {
 	private static final String DH_JAR = "distant-horizons.jar";
 	private static final String SERVER_PROPERTIES_FILE = "server.properties";
 	private static final String EULA_FILE = "eula.txt";
+	private static final int SERVER_PORT = 25564;
 	private static final String MODS_DIR = Paths.get(SERVER_DIR, "mods").toString();
 	private static final String WORLD_DIR = Paths.get(SERVER_DIR, "world").toString();
 	private static final String WORLD_DATAPACK_DIR = Paths.get(WORLD_DIR, "datapacks").toString();
 	private static final String DATA_DIR = Paths.get(WORLD_DIR, "data").toString();
 	private static final String DH_DB_FILE = Paths.get(DATA_DIR, "DistantHorizons.sqlite").toString();
-	private static final String PROGRESS_FILE = "benchmark-progress.txt";
+	private static final String RESULTS_FILE = "benchmark-results.csv";
+	private static final String RUNS_FILE = "benchmark-runs.csv";
+	private static final String PROGRESS_FILE = "benchmark-progress.journal";
+	private static final String DB_ANALYSIS_FILE = "benchmark-db-analysis.csv";
+	private static final String RESOURCE_CURVE_FILE = "benchmark-resource-curve.csv";
+	// Every session writes its own trace, a resumed campaign would otherwise overwrite the timeline of the sessions before it
+	private static final String TRACE_FILE = "benchmark-trace-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+	private static final String LOG_ARCHIVE_DIR = "benchmark-logs";
+	private static final String WORKERS_FILE = "benchmark-workers.csv";
+	private static final String PREGEN_TASKS_FILE = "benchmark-pregen-tasks.csv";
+	// Kept across campaigns, to compare the startup time of different mod and datapack setups
+	private static final String STARTUP_HISTORY_FILE = "benchmark-startup-history.csv";
+	// The share of the pregen area a template must contain for LOD_ONLY, which leaves room for pregen mods that round the radius differently
+	private static final double MIN_TEMPLATE_COVERAGE = 0.9;
+	// How often an idle worker asks the coordinator for work
+	private static final int WORKER_POLL_SECONDS = 10;
+	// How long a worker keeps trying to reach the coordinator before giving up
+	private static final int WORKER_UNREACHABLE_MINUTES = 10;
+	// Shared, because closing a Scanner would also close System.in for every later prompt.
+	private static final Scanner INPUT = new Scanner(System.in);
 
+	private static CliOptions options;
+	private static Path outputDir = Paths.get("");
 	private static BenchmarkConfig benchmarkConfig;
 	private static ServerManager serverManager;
+	private static CpuTopology cpuTopology;
 
 	public static void main(String[] args) {
-		if (args.length == 1 && args[0].equals("--collect-hardware-info")) {
-			try {
-				if (System.getProperty("os.name").toLowerCase().contains("linux") && !isSudoUser()) {
-					System.err.println("Collecting hardware information such as RAM speed and type requires root privileges on Linux. Please run the program with elevated privileges.");
-				} else {
-					System.out.println("Collecting hardware information...");
-					List<String> hardwareInfo = HardwareInfo.getHardwareInfo();
-					System.out.println("CPU: " + hardwareInfo.get(0));
-					System.out.println("RAM: " + hardwareInfo.get(1));
-					System.out.println("Drive: " + hardwareInfo.get(2));
-					FileManager.writeHardwareInfoToCSV("benchmark-results.csv", hardwareInfo);
+		try {
+			options = CliOptions.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(CliOptions.USAGE);
+			System.exit(ExitCode.USAGE);
+		}
+
+		outputDir = Paths.get(options.outputDir());
+		switch (options.mode()) {
+			case HELP -> System.out.println(CliOptions.USAGE);
+			case REPLAY -> {
+				try {
+					Files.createDirectories(outputDir);
+					LogReplay.run(Paths.get(options.replayPath()), outputDir);
+				} catch (IOException e) {
+					System.err.println("Error replaying the log archives:");
+					e.printStackTrace();
+					System.exit(ExitCode.FAILURE);
 				}
-			} catch (IOException | InterruptedException e) {
-				System.err.println("Error checking for sudo privileges:");
-				e.printStackTrace();
 			}
-			return;
+			case COLLECT_HARDWARE_INFO -> {
+				try {
+					if (System.getProperty("os.name").toLowerCase().contains("linux") && !isSudoUser()) {
+						System.err.println("Collecting hardware information such as RAM speed and type requires root privileges on Linux. Please run the program with elevated privileges.");
+						System.exit(ExitCode.FAILURE);
+					}
+					collectHardwareInfo();
+				} catch (IOException | InterruptedException e) {
+					System.err.println("Error checking for sudo privileges:");
+					e.printStackTrace();
+					System.exit(ExitCode.FAILURE);
+				}
+			}
+			case BENCHMARK -> System.exit(runCampaign());
+			case COORDINATOR -> System.exit(runCoordinator());
+			case WORKER -> System.exit(runWorker());
 		}
+	}
 
+	/**
+	 * Collects the hardware information and adds it to the results file.
+	 */
+	private static void collectHardwareInfo() throws IOException {
+		System.out.println("Collecting hardware information...");
+		List<String> hardwareInfo = HardwareInfo.getHardwareInfo();
+		System.out.println("CPU: " + hardwareInfo.get(0));
+		System.out.println("RAM: " + hardwareInfo.get(1));
+		System.out.println("Drive: " + hardwareInfo.get(2));
+		FileManager.writeHardwareInfoToCSV(outputFile(RESULTS_FILE), hardwareInfo);
+	}
+
+	/**
+	 * Runs the whole benchmark campaign and returns the exit code.
+	 */
+	private static int runCampaign() {
 		try {
-			benchmarkConfig = FileManager.loadBenchmarkConfig();
-
-			System.out.println("Loaded configuration:");
-			System.out.println("- RAM (GB): " + benchmarkConfig.ramGb());
-			System.out.println("- Seeds: " + benchmarkConfig.seeds());
-			System.out.println("- Thread Preset: " + benchmarkConfig.threadPreset());
-			System.out.println("- Benchmark Radius: " + benchmarkConfig.generationRadius());
-			System.out.println("- Fabric Download URL: " + benchmarkConfig.fabricDownloadUrl());
-			System.out.println("- Distant Horizons Download URL: " + benchmarkConfig.dhDownloadUrl());
-			System.out.println("- Extra JVM Args: " + benchmarkConfig.extraJvmArgs());
-			System.out.println("- Debug Mode: " + benchmarkConfig.debugMode());
-			System.out.println("- Timeout Scale: " + benchmarkConfig.timeoutScale());
-
-			serverManager = new ServerManager(benchmarkConfig);
-			List<String> serverCmd = serverManager.getServerStartCommand();
-
-			if (!Files.exists(Paths.get(SERVER_DIR, FABRIC_JAR))) {
-				try (Scanner scanner = new Scanner(System.in)) {
-					System.out.print("Do you agree to Mojang's EULA? (https://aka.ms/MinecraftEULA) (y/N): ");
-					String eulaAnswer = scanner.nextLine();
-
-					if (eulaAnswer.equalsIgnoreCase("y")) {
-						System.out.println("EULA accepted. Downloading the server and accepting the EULA.");
-						if (DownloadManager.downloadFile(benchmarkConfig.fabricDownloadUrl(), SERVER_DIR, FABRIC_JAR)) {
-							System.out.println("Fabric downloaded successfully.");
-							System.out.println("Starting server to generate eula.txt and server.properties...");
-							serverManager.startServer(serverCmd);
-
-                            Thread.sleep(5000);
-							FileManager.updateConfigLine(Paths.get(SERVER_DIR, EULA_FILE), "eula", "eula=true");
-                            Path propertiesPath = Paths.get(SERVER_DIR, SERVER_PROPERTIES_FILE);
-                            FileManager.updateConfigLine(propertiesPath, "white-list", "white-list=true");
-                            FileManager.updateConfigLine(propertiesPath, "server-port", "server-port=25564");
+			// Only the configuration is checked here, a runtime failure hours into the campaign must not be reported as an invalid configuration
+			Map<String, BenchmarkCell> cells;
+			try {
+				benchmarkConfig = FileManager.loadBenchmarkConfig(options.configFile(), options.overrides());
+				printConfig();
+				cells = planCells(benchmarkConfig);
+				validateHost(benchmarkConfig);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				System.err.println("Invalid configuration: " + e.getMessage());
+				return ExitCode.INVALID_CONFIG;
+			}
+
+			Files.createDirectories(outputDir);
+			if (!prepareServer()) {
+				return ExitCode.EULA_NOT_ACCEPTED;
+			}
+
+			List<RunKey> plannedRuns = planRuns(cells, benchmarkConfig);
+
+			try (ProgressJournal journal = new ProgressJournal(Paths.get(outputFile(PROGRESS_FILE)))) {
+				Map<RunKey, BenchmarkResult> completedRuns = resumeProgress(journal, plannedRuns, cells.keySet());
+				if (completedRuns == null) {
+					return ExitCode.PROGRESS_MISMATCH;
+				}
+
+				// Run the benchmark for every non-completed run
+				Map<RunKey, String> failedRuns = new LinkedHashMap<>();
+				int run = 0;
+				for (RunKey key : plannedRuns) {
+					if (!completedRuns.containsKey(key)) {
+						journal.recordStart(key);
+						try {
+							BenchmarkResult result = runPlanned(cells.get(key.configHash()), key, run);
+							journal.recordResult(key, result);
+							completedRuns.put(key, result);
+						} catch (RunFailedException e) {
+							System.err.println("Run failed: " + e.getMessage() + " Continuing with the next run.");
+							System.out.println();
+							journal.recordFailure(key, e.getMessage());
+							failedRuns.put(key, e.getMessage());
 						}
-					} else {
-						System.err.println("You must agree to Mojang's EULA to run the server. Exiting.");
-						System.exit(1);
 					}
+					run++;
+				}
+
+				System.out.println("Benchmark completed. Results:");
+				reportResults(cells, plannedRuns, completedRuns, failedRuns);
+				if (!failedRuns.isEmpty()) {
+					System.err.println(failedRuns.size() + " of " + plannedRuns.size() + " runs failed. Run the benchmark again with --resume to repeat them.");
+					return ExitCode.RUNS_FAILED;
 				}
+				journal.clear();
 			}
 
-			DownloadManager.downloadFile(benchmarkConfig.dhDownloadUrl(), MODS_DIR, DH_JAR);
-			System.out.println();
+			if (options.hardwareInfo()) {
+				if (System.getProperty("os.name").toLowerCase().contains("linux") && !isSudoUser()) {
+					System.out.println("Not running as root, the RAM speed and type may be missing from the hardware information.");
+				}
+				collectHardwareInfo();
+			}
+			return ExitCode.SUCCESS;
+		} catch (Exception e) {
+			System.err.println("An error occurred during the benchmark process:");
+			e.printStackTrace();
+			return ExitCode.FAILURE;
+		}
+	}
 
-			List<String> seeds = benchmarkConfig.seeds();
-			List<BenchmarkResult> benchmarkResults = new ArrayList<>();
+	/**
+	 * Hands out the runs of the campaign to workers and reports the results once all of them are completed.
+	 */
+	private static int runCoordinator() {
+		try {
+			// CPU placements and cgroup limits are validated by the workers, as they depend on the host
+			Map<String, BenchmarkCell> cells;
+			try {
+				benchmarkConfig = FileManager.loadBenchmarkConfig(options.configFile(), options.overrides());
+				printConfig();
+				// The workers would start the runtimes found on the coordinator, which they may not have
+				if (benchmarkConfig.javaHomes().stream().anyMatch(JavaRuntimes::isAuto)) {
+					throw new IllegalArgumentException("java_homes \"" + JavaRuntimes.AUTO + "\" finds the runtimes of a single host and can't be used with a coordinator, list the Java homes instead.");
+				}
+				cells = planCells(benchmarkConfig);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				System.err.println("Invalid configuration: " + e.getMessage());
+				return ExitCode.INVALID_CONFIG;
+			}
 
-			// Check for existing progress
-			List<Integer> completedSeeds = FileManager.loadBenchmarkProgress(PROGRESS_FILE);
-			int startSeedIndex = 0;
-
-			if (!completedSeeds.isEmpty()) {
-				startSeedIndex = completedSeeds.stream().max(Integer::compareTo).orElse(-1) + 1;
-
-				if (startSeedIndex < seeds.size()) {
-					try (Scanner scanner = new Scanner(System.in)) {
-						System.out.println("Found previous benchmark progress. " + completedSeeds.size() + " out of " + seeds.size() + " seeds were completed.");
-						System.out.print("Would you like to resume from seed " + seeds.get(startSeedIndex) + "? (y/N): ");
-						String answer = scanner.nextLine();
-
-						if (answer.equalsIgnoreCase("y")) {
-							System.out.println("Resuming benchmark from seed " + seeds.get(startSeedIndex));
-							benchmarkResults = FileManager.loadSeedResults(PROGRESS_FILE, startSeedIndex);
-						} else {
-							System.out.println("Starting benchmark from the beginning.");
-                            startSeedIndex = 0;
-							FileManager.clearBenchmarkProgress(PROGRESS_FILE);
-						}
+			Files.createDirectories(outputDir);
+			List<RunKey> plannedRuns = planRuns(cells, benchmarkConfig);
+
+			try (ProgressJournal journal = new ProgressJournal(Paths.get(outputFile(PROGRESS_FILE)))) {
+				Map<RunKey, BenchmarkResult> completedRuns = resumeProgress(journal, plannedRuns, cells.keySet());
+				if (completedRuns == null) {
+					return ExitCode.PROGRESS_MISMATCH;
+				}
+
+				Coordinator coordinator = new Coordinator(benchmarkConfig, cells, plannedRuns, journal, completedRuns);
+				coordinator.serve(options.coordinatorPort(), WORKER_POLL_SECONDS * 2);
+
+				System.out.println("Campaign completed. Results:");
+				Map<RunKey, String> failedRuns = coordinator.failedRuns();
+				reportResults(cells, plannedRuns, completedRuns, failedRuns);
+				FileManager.writeWorkersToCSV(outputFile(WORKERS_FILE), coordinator.workersByRun(), cells);
+				System.out.println("Workers of every run saved to " + outputFile(WORKERS_FILE));
+				if (!failedRuns.isEmpty()) {
+					System.err.println(failedRuns.size() + " of " + plannedRuns.size() + " runs failed. Start the coordinator again with --resume to repeat them.");
+					return ExitCode.RUNS_FAILED;
+				}
+				journal.clear();
+			}
+			return ExitCode.SUCCESS;
+		} catch (Exception e) {
+			System.err.println("An error occurred while coordinating the benchmark:");
+			e.printStackTrace();
+			return ExitCode.FAILURE;
+		}
+	}
+
+	/**
+	 * Runs the runs handed out by a coordinator until the campaign is complete.
+	 * The configuration is sent by the coordinator, so the local config file isn't used.
+	 */
+	private static int runWorker() {
+		try (CoordinatorClient coordinator = new CoordinatorClient(options.coordinatorUrl())) {
+			Files.createDirectories(outputDir);
+			WorkerInfo worker = collectWorkerInfo();
+			System.out.println("Worker " + worker.workerId() + " connecting to " + options.coordinatorUrl());
+
+			int run = 0;
+			long unreachableSince = -1;
+			while (true) {
+				Optional<Lease> lease;
+				try {
+					lease = coordinator.lease(worker);
+					unreachableSince = -1;
+				} catch (IOException e) {
+					if (unreachableSince < 0) {
+						System.err.println("Coordinator is unreachable, retrying: " + e.getMessage());
+						unreachableSince = System.nanoTime();
+					} else if (System.nanoTime() - unreachableSince > TimeUnit.MINUTES.toNanos(WORKER_UNREACHABLE_MINUTES)) {
+						System.err.println("Coordinator was unreachable for " + WORKER_UNREACHABLE_MINUTES + " minutes. Exiting.");
+						return ExitCode.FAILURE;
 					}
+					Thread.sleep(TimeUnit.SECONDS.toMillis(WORKER_POLL_SECONDS));
+					continue;
+				}
+
+				if (coordinator.campaignComplete()) {
+					System.out.println("The campaign is complete, " + run + " runs were benchmarked on this worker.");
+					return ExitCode.SUCCESS;
+				}
+				if (lease.isEmpty()) {
+					Thread.sleep(TimeUnit.SECONDS.toMillis(WORKER_POLL_SECONDS));
+					continue;
+				}
+
+				if (!lease.get().config().equals(benchmarkConfig)) {
+					benchmarkConfig = lease.get().config();
+					printConfig();
+					try {
+						validateHost(benchmarkConfig);
+					} catch (IllegalArgumentException | IllegalStateException e) {
+						System.err.println("Invalid configuration for this worker: " + e.getMessage());
+						return ExitCode.INVALID_CONFIG;
+					}
+					if (!prepareServer()) {
+						return ExitCode.EULA_NOT_ACCEPTED;
+					}
+				}
+
+				BenchmarkResult result = null;
+				String failure = null;
+				Thread heartbeat = startHeartbeat(coordinator, lease.get());
+				try {
+					result = runPlanned(lease.get().cell(), lease.get().key(), run);
+				} catch (RunFailedException e) {
+					System.err.println("Run failed: " + e.getMessage());
+					failure = e.getMessage();
+				} finally {
+					heartbeat.interrupt();
+				}
+				submitResult(coordinator, lease.get(), result, failure);
+				run++;
+			}
+		} catch (Exception e) {
+			System.err.println("An error occurred during the benchmark process:");
+			e.printStackTrace();
+			return ExitCode.FAILURE;
+		}
+	}
+
+	private static WorkerInfo collectWorkerInfo() {
+		String hostname;
+		try {
+			hostname = InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			hostname = "unknown";
+		}
+		// Several workers may run on the same host, e.g. when testing on localhost
+		String workerId = hostname + "-" + ProcessHandle.current().pid();
+		String os = System.getProperty("os.name") + " " + System.getProperty("os.version");
+		// Collected without root or subprocesses, the storage of every run is recorded with its result
+		HostFingerprint host = HostFingerprints.current();
+		List<String> hardware = List.of(host.cpuModel() + " " + host.physicalCores() + "C/" + host.logicalCpus() + "T", host.memoryGb() + " GB",
+				HostFingerprints.storage(Paths.get(SERVER_DIR)).description());
+		return new WorkerInfo(workerId, hostname, os, Runtime.getRuntime().availableProcessors(), hardware, host.hostId());
+	}
+
+	/**
+	 * Renews the lease in the background while its run is benchmarked.
+	 */
+	private static Thread startHeartbeat(CoordinatorClient coordinator, Lease lease) {
+		return Thread.ofVirtual().name("Heartbeat-Thread").start(() -> {
+			long intervalMillis = TimeUnit.SECONDS.toMillis(lease.leaseSeconds()) / 4;
+			boolean warned = false;
+			while (true) {
+				try {
+					Thread.sleep(intervalMillis);
+					if (!coordinator.heartbeat(lease.leaseId()) && !warned) {
+						System.err.println("The lease of this run expired, the coordinator may have handed it out to another worker.");
+						warned = true;
+					}
+				} catch (InterruptedException e) {
+					return;
+				} catch (IOException e) {
+					// The next heartbeat may get through before the lease expires
+				}
+			}
+		});
+	}
+
+	/**
+	 * Submits the result of a run, or the reason it failed if the result is null.
+	 * Retries for a while if the coordinator is unreachable, as the result took a whole run to get.
+	 */
+	private static void submitResult(CoordinatorClient coordinator, Lease lease, BenchmarkResult result, String failure) throws IOException, InterruptedException {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				if (result != null) {
+					coordinator.submitResult(lease.leaseId(), result);
 				} else {
-                    System.out.println("All seeds have already been benchmarked or there are more completed seeds than current seeds. Exiting.");
-                    FileManager.clearBenchmarkProgress(PROGRESS_FILE);
-                    return;
-                }
+					coordinator.submitFailure(lease.leaseId(), failure);
+				}
+				return;
+			} catch (IOException e) {
+				if (attempt * WORKER_POLL_SECONDS >= TimeUnit.MINUTES.toSeconds(WORKER_UNREACHABLE_MINUTES)) {
+					throw e;
+				}
+				System.err.println("Failed to submit the result, retrying: " + e.getMessage());
+				Thread.sleep(TimeUnit.SECONDS.toMillis(WORKER_POLL_SECONDS));
 			}
+		}
+	}
+
+	private static void printConfig() {
+		System.out.println("Loaded configuration:");
+		System.out.println("- RAM (GB): " + benchmarkConfig.ramGb());
+		System.out.println("- Seeds: " + benchmarkConfig.seeds());
+		System.out.println("- Thread Preset: " + benchmarkConfig.threadPreset());
+		System.out.println("- Benchmark Radius: " + benchmarkConfig.generationRadius());
+		if (!benchmarkConfig.pregenTasks().isEmpty()) {
+			System.out.println("- Pregen Tasks: " + benchmarkConfig.pregenTasks());
+		}
+		System.out.println("- Fabric Download URL: " + benchmarkConfig.fabricDownloadUrl());
+		System.out.println("- Distant Horizons Download URL: " + benchmarkConfig.dhDownloadUrl());
+		System.out.println("- Extra JVM Args: " + benchmarkConfig.extraJvmArgs());
+		System.out.println("- Debug Mode: " + benchmarkConfig.debugMode());
+		System.out.println("- Timeout Scale: " + benchmarkConfig.timeoutScale());
+		System.out.println("- World Storage Paths: " + benchmarkConfig.worldStoragePaths());
+		System.out.println("- World Template Directory: " + benchmarkConfig.worldTemplateDir());
+		System.out.println("- Scenarios: " + benchmarkConfig.scenarios());
+		System.out.println("- CPU Placements: " + benchmarkConfig.cpuPlacements());
+		System.out.println("- Throttle Threshold: " + benchmarkConfig.throttleThresholdPercent() + "%");
+		System.out.println("- cgroup Limits: " + benchmarkConfig.cgroupLimits() + " (" + benchmarkConfig.cgroupMode() + ")");
+		if (!options.overrides().isEmpty()) {
+			System.out.println("- Overrides: " + options.overrides());
+		}
+		System.out.println("- Heap Sweep (GB): " + benchmarkConfig.heapSweepGb() + (benchmarkConfig.fixedHeap() ? " (fixed heap)" : ""));
+		if (benchmarkConfig.fakeServer()) {
+			System.out.println("- Fake Server: " + benchmarkConfig.fakeServerCps() + " Cps, " + benchmarkConfig.fakeServerLogLinesPerSecond() + " log lines/s");
+		}
+		System.out.println("- Java Homes: " + (benchmarkConfig.javaHomes().isEmpty() ? "[] (java on the PATH)" : benchmarkConfig.javaHomes()));
+		System.out.println("- Tick Query Interval: " + (benchmarkConfig.measuresTicks()
+				? benchmarkConfig.tickQueryIntervalSeconds() + "s (idle baseline " + benchmarkConfig.tickBaselineSeconds() + "s)" : "disabled"));
+	}
+
+	/**
+	 * Downloads the server and Distant Horizons and accepts the EULA on the first start.
+	 * Returns false if the EULA wasn't accepted.
+	 */
+	private static boolean prepareServer() throws IOException, InterruptedException {
+		serverManager = new ServerManager(benchmarkConfig);
+		List<String> serverCmd = serverManager.getServerStartCommand();
 
-			// Run the benchmark for every non-completed seed
-			for (int i = startSeedIndex; i < seeds.size(); i++) {
-				BenchmarkResult result = runBenchmark(seeds.get(i), serverCmd, i);
-				benchmarkResults.add(result);
-				FileManager.saveSeedResult(PROGRESS_FILE, i, result);
+		if (benchmarkConfig.fakeServer()) {
+			// Not Mojang's server, so there is no EULA and nothing to download
+			if (!Files.exists(Paths.get(SERVER_DIR, SERVER_PROPERTIES_FILE))) {
+				Files.createDirectories(Paths.get(SERVER_DIR));
+				System.out.println("Starting the fake server to generate server.properties...");
+				serverManager.startServer(serverCmd);
+				serverManager.stopServer(false);
 			}
+			System.out.println("Using the fake server, the results only measure the benchmark itself.");
+			System.out.println();
+			return true;
+		}
 
-			System.out.println("Benchmark completed. Results:");
+		if (!Files.exists(Paths.get(SERVER_DIR, FABRIC_JAR))) {
+			if (options.acceptEula() || askYesNo("Do you agree to Mojang's EULA? (https://aka.ms/MinecraftEULA) (y/N): ")) {
+				System.out.println("EULA accepted. Downloading the server and accepting the EULA.");
+				boolean downloaded;
+				try (TraceRecorder.Span ignored = TraceRecorder.span("download", "file", FABRIC_JAR)) {
+					downloaded = DownloadManager.downloadFile(benchmarkConfig.fabricDownloadUrl(), SERVER_DIR, FABRIC_JAR);
+				}
+				if (downloaded) {
+					System.out.println("Fabric downloaded successfully.");
+					System.out.println("Starting server to generate eula.txt and server.properties...");
+					serverManager.startServer(serverCmd);
 
+					Thread.sleep(5000);
+					FileManager.updateConfigLine(Paths.get(SERVER_DIR, EULA_FILE), "eula", "eula=true");
+					Path propertiesPath = Paths.get(SERVER_DIR, SERVER_PROPERTIES_FILE);
+					FileManager.updateConfigLine(propertiesPath, "white-list", "white-list=true");
+					FileManager.updateConfigLine(propertiesPath, "server-port", "server-port=" + SERVER_PORT);
+				}
+			} else {
+				System.err.println("You must agree to Mojang's EULA to run the server, or pass --accept-eula. Exiting.");
+				return false;
+			}
+		}
+
+		try (TraceRecorder.Span ignored = TraceRecorder.span("download", "file", DH_JAR)) {
+			DownloadManager.downloadFile(benchmarkConfig.dhDownloadUrl(), MODS_DIR, DH_JAR);
+		}
+		if (options.mode() == CliOptions.Mode.WORKER) {
+			// Several workers may run on the same host, each from its own directory, their servers can't all bind the same port
+			int port = findFreePort();
+			FileManager.updateConfigLine(Paths.get(SERVER_DIR, SERVER_PROPERTIES_FILE), "server-port", "server-port=" + port);
+			System.out.println("The server of this worker listens on port " + port + ".");
+		}
+		System.out.println();
+		return true;
+	}
+
+	/**
+	 * Gets a port no other process is listening on right now.
+	 * It is handed out by the OS, as the servers of workers that are prepared at the same time haven't bound their ports yet.
+	 */
+	private static int findFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	/**
+	 * Builds the campaign cells of a configuration, keyed by their hash.
+	 * Every run is identified by the hash of its campaign cell, the seed and the repetition, so results can be matched regardless of order.
+	 * A Java home of "auto" is resolved to the runtimes installed on this host.
+	 */
+	private static Map<String, BenchmarkCell> planCells(BenchmarkConfig config) {
+		Map<String, BenchmarkCell> cells = new LinkedHashMap<>();
+		for (BenchmarkCell cell : BenchmarkCell.fromConfig(config, JavaRuntimes.expand(config.javaHomes()))) {
+			cells.put(cell.configHash(config), cell);
+		}
+		return cells;
+	}
+
+	/**
+	 * Lists every run of the campaign in the order they are benchmarked.
+	 */
+	private static List<RunKey> planRuns(Map<String, BenchmarkCell> cells, BenchmarkConfig config) {
+		List<RunKey> plannedRuns = new ArrayList<>();
+		for (String configHash : cells.keySet()) {
+			for (String seed : config.seeds()) {
+				for (int repetition = 0; repetition < config.repetitions(); repetition++) {
+					plannedRuns.add(new RunKey(configHash, seed, repetition));
+				}
+			}
+		}
+		return plannedRuns;
+	}
+
+	/**
+	 * Checks that this host supports the CPU placements and cgroup limits of the configuration.
+	 */
+	private static void validateHost(BenchmarkConfig config) throws IOException {
+		long fingerprintStart = System.nanoTime();
+		HostFingerprint host = HostFingerprints.current();
+		System.out.println(String.format("Host %s: %s (fingerprinted in %.0f ms)", host.hostId(), host.description(), (System.nanoTime() - fingerprintStart) / 1_000_000.0));
+		if (config.cpuPlacements().stream().anyMatch(placement -> !placement.isBlank())) {
+			cpuTopology = HardwareInfo.getCpuTopology();
+			System.out.println("CPU topology: " + cpuTopology);
+			CpuPlacement.validate(config.cpuPlacements(), cpuTopology);
+		}
+		CgroupLauncher.validate(config.cgroupLimits(), config);
+		validateWorldTemplates(config);
+		if (!config.javaHomes().isEmpty()) {
+			System.out.println("Java runtimes:");
+			for (JavaRuntime runtime : JavaRuntimes.validate(JavaRuntimes.expand(config.javaHomes()))) {
+				System.out.println("- " + runtime.home() + ": " + runtime.description());
+			}
+		}
+	}
+
+	/**
+	 * Makes sure every seed has a world template that contains the whole pregen area, if the LOD_ONLY scenario is run.
+	 * The templates the benchmark captures by itself only contain the spawn area, LOD_ONLY would then measure an almost empty area.
+	 */
+	private static void validateWorldTemplates(BenchmarkConfig config) throws IOException {
+		if (!config.scenarios().contains(Scenario.LOD_ONLY)) {
+			return;
+		}
+
+		for (String seed : config.seeds()) {
+			Path template = Paths.get(config.worldTemplateDir(), seed);
+			if (!Files.isDirectory(template)) {
+				throw new IllegalArgumentException("The LOD_ONLY scenario needs a pre-generated world template for seed " + seed + " in " + template + ".");
+			}
+			double coverage = WorldSnapshot.chunkCoverage(template, config.resolvePregenTasks());
+			if (coverage < MIN_TEMPLATE_COVERAGE) {
+				throw new IllegalArgumentException(String.format("The world template %s only contains %.1f%% of the chunks of the pregen area, "
+						+ "the LOD_ONLY scenario needs them pre-generated.", template, coverage * 100));
+			}
+		}
+	}
+
+	/**
+	 * Runs a single planned run with the placement and limits of its cell.
+	 * Throws a {@link RunFailedException} if the run didn't produce a result.
+	 */
+	private static BenchmarkResult runPlanned(BenchmarkCell cell, RunKey key, int run) throws IOException, InterruptedException {
+		List<String> cellCmd = CgroupLauncher.wrapCommand(cell.cgroupLimits(), benchmarkConfig,
+				CpuPlacement.wrapCommand(cell.cpuPlacement(), cpuTopology, serverManager.getServerStartCommand(cell.ramGb(), cell.javaHome())));
+		try (TraceRecorder.Span ignored = TraceRecorder.span("run " + formatRunName(key), "cell", cell.label(), "cell_hash", key.configHash(),
+				"seed", key.seed(), "repetition", key.repetition() + 1)) {
+			return runBenchmark(cell, key, cellCmd, run);
+		} finally {
+			CgroupLauncher.cleanup(cell.cgroupLimits(), benchmarkConfig);
+			// Rewritten after every run, so the trace of an aborted campaign isn't lost
+			TraceRecorder.write(Paths.get(outputFile(TRACE_FILE)));
+		}
+	}
+
+	/**
+	 * Prints the results of every cell and the campaign reports, and saves them to the output files.
+	 * Failed runs are listed with their cell, but left out of every average.
+	 */
+	private static void reportResults(Map<String, BenchmarkCell> cells, List<RunKey> plannedRuns, Map<RunKey, BenchmarkResult> completedRuns,
+									  Map<RunKey, String> failedRuns) throws IOException {
+		Map<RunKey, BenchmarkResult> orderedResults = new LinkedHashMap<>();
+		Map<String, List<BenchmarkResult>> resultsByStorage = new LinkedHashMap<>();
+		Map<Scenario, List<BenchmarkResult>> resultsByScenario = new LinkedHashMap<>();
+		Map<String, List<BenchmarkResult>> resultsByPlacement = new LinkedHashMap<>();
+		Map<String, List<BenchmarkResult>> resultsByLimits = new LinkedHashMap<>();
+		Map<Integer, List<BenchmarkResult>> resultsByHeap = new TreeMap<>();
+		Map<Integer, Integer> failedRunsByHeap = new TreeMap<>();
+		Map<String, List<BenchmarkResult>> resultsByJdk = new LinkedHashMap<>();
+		Map<String, Map<String, List<BenchmarkResult>>> resultsByCellAndHost = new LinkedHashMap<>();
+		boolean firstCell = true;
+
+		for (Map.Entry<String, BenchmarkCell> cell : cells.entrySet()) {
+			if (cells.size() > 1) {
+				System.out.println("Cell " + cell.getValue().label() + ":");
+			}
+
+			List<BenchmarkResult> benchmarkResults = new ArrayList<>();
 			long totalTime = 0;
 			double totalDBSizeInMB = 0;
 
-			for (int i = 0; i < seeds.size(); i++) {
-				BenchmarkResult res = benchmarkResults.get(i);
+			for (RunKey key : plannedRuns) {
+				if (!key.configHash().equals(cell.getKey())) {
+					continue;
+				}
+
+				BenchmarkResult res = completedRuns.get(key);
+				if (res == null) {
+					System.out.println(formatRunName(key) + ": FAILED (" + failedRuns.getOrDefault(key, "no result") + ")");
+					failedRunsByHeap.merge(cell.getValue().ramGb(), 1, Integer::sum);
+					continue;
+				}
 				double dbSizeInMB = res.dbSize() / (1024.0 * 1024.0);
 				String formattedTime = formatDuration(res.elapsedTime());
-				System.out.println("Seed " + seeds.get(i) + ": Elapsed Time: " + formattedTime + ", Cps: " + res.averageCps() + ", Database Size: " + Math.round(dbSizeInMB) + " MB");
+				System.out.println(formatRunName(key) + ": Elapsed Time: " + formattedTime + ", Cps: " + res.averageCps() + ", Database Size: " + Math.round(dbSizeInMB) + " MB");
 
+				benchmarkResults.add(res);
+				orderedResults.put(key, res);
 				totalTime += res.elapsedTime();
 				totalDBSizeInMB += dbSizeInMB;
 			}
 
-			long avgTime = totalTime / seeds.size();
-			long avgDBSizeInMB = Math.round(totalDBSizeInMB / seeds.size());
+			if (benchmarkResults.isEmpty()) {
+				System.out.println("Every run of this cell failed.");
+				System.out.println();
+				continue;
+			}
+
+			long avgTime = totalTime / benchmarkResults.size();
+			long avgDBSizeInMB = Math.round(totalDBSizeInMB / benchmarkResults.size());
 			String formattedAvgTime = formatDuration(avgTime);
 			long avgCps = (long) benchmarkResults.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0);
 			System.out.println("Average: Elapsed Time: " + formattedAvgTime + ", Cps: " + avgCps + ", Database Size: " + avgDBSizeInMB + " MB");
+			long hosts = benchmarkResults.stream().filter(res -> res.host() != null).map(res -> res.host().hostId()).distinct().count();
+			if (hosts > 1) {
+				System.out.println("WARNING: The runs of this cell were benchmarked on " + hosts + " different hosts, its average mixes their hardware. "
+						+ "See the host comparison and the host_id column of " + RUNS_FILE + ".");
+			}
+			long throttledRuns = benchmarkResults.stream().filter(BenchmarkResult::throttled).count();
+			if (throttledRuns > 0) {
+				System.out.println("WARNING: " + throttledRuns + " of " + benchmarkResults.size() + " runs were thermally throttled.");
+			}
+			benchmarkResults.stream().filter(res -> res.pregenTicks() != null).mapToDouble(res -> res.pregenTicks().averageMspt()).average()
+					.ifPresent(mspt -> {
+						OptionalDouble increase = benchmarkResults.stream().flatMapToDouble(res -> res.msptIncrease().stream()).average();
+						System.out.println(String.format("Average tick time during pregen: %.2f ms", mspt)
+								+ (increase.isPresent() ? String.format(" (%+.2f ms over idle)", increase.getAsDouble()) : ""));
+					});
+			for (LodReadBenchmark.AccessPattern pattern : LodReadBenchmark.AccessPattern.values()) {
+				benchmarkResults.stream().flatMap(res -> res.readBenchmark(pattern.name()).stream()).mapToDouble(ReadBenchmarkResult::queriesPerSecond).average()
+						.ifPresent(qps -> System.out.println("Average " + pattern + " reads: " + Math.round(qps) + " queries/s"));
+			}
+			System.out.println();
 
-			FileManager.writeResultsToCSV("benchmark-results.csv", benchmarkResults, formattedAvgTime, avgCps, avgDBSizeInMB, benchmarkConfig.ramGb());
-			System.out.println("Results saved to benchmark-results.csv");
-			FileManager.clearBenchmarkProgress(PROGRESS_FILE);
-		} catch (Exception e) {
-			System.err.println("An error occurred during the benchmark process:");
-			e.printStackTrace();
+			FileManager.writeResultsToCSV(outputFile(RESULTS_FILE), benchmarkResults, formattedAvgTime, avgCps, avgDBSizeInMB, cell.getValue().ramGb(), !firstCell);
+			firstCell = false;
+
+			resultsByStorage.computeIfAbsent(cell.getValue().storageLabel(), storage -> new ArrayList<>()).addAll(benchmarkResults);
+			resultsByScenario.computeIfAbsent(cell.getValue().scenario(), scenario -> new ArrayList<>()).addAll(benchmarkResults);
+			resultsByPlacement.computeIfAbsent(cell.getValue().placementLabel(), placement -> new ArrayList<>()).addAll(benchmarkResults);
+			resultsByLimits.computeIfAbsent(cell.getValue().cgroupLimits(), limits -> new ArrayList<>()).addAll(benchmarkResults);
+			resultsByHeap.computeIfAbsent(cell.getValue().ramGb(), ramGb -> new ArrayList<>()).addAll(benchmarkResults);
+			resultsByJdk.computeIfAbsent(cell.getValue().jdkLabel(), jdk -> new ArrayList<>()).addAll(benchmarkResults);
+			for (BenchmarkResult result : benchmarkResults) {
+				if (result.host() != null) {
+					resultsByCellAndHost.computeIfAbsent(cell.getValue().label(), label -> new LinkedHashMap<>())
+							.computeIfAbsent(result.host().hostId() + " (" + result.host().cpuModel() + ")", host -> new ArrayList<>()).add(result);
+				}
+			}
+		}
+
+		if (resultsByStorage.size() > 1) {
+			CampaignReport.printStorageSensitivity(resultsByStorage);
+		}
+		if (resultsByScenario.size() > 1) {
+			CampaignReport.printScenarioBreakdown(resultsByScenario);
+		}
+		if (resultsByPlacement.size() > 1) {
+			CampaignReport.printComparison("CPU placement comparison", resultsByPlacement);
+			System.out.println();
 		}
+		if (resultsByLimits.size() > 1) {
+			CampaignReport.printResourceCurve(resultsByLimits);
+			FileManager.writeResourceCurveToCSV(outputFile(RESOURCE_CURVE_FILE), resultsByLimits);
+			System.out.println("Resource curve saved to " + outputFile(RESOURCE_CURVE_FILE));
+		}
+		if (cells.values().stream().map(BenchmarkCell::ramGb).distinct().count() > 1) {
+			CampaignReport.printHeapSweep(resultsByHeap, failedRunsByHeap, benchmarkConfig.heapKneeTolerancePercent());
+		}
+
+		if (resultsByJdk.size() > 1) {
+			CampaignReport.printJdkComparison(resultsByJdk);
+		}
+		CampaignReport.printHostComparison(resultsByCellAndHost);
+		if (benchmarkConfig.resolvePregenTasks().size() > 1) {
+			CampaignReport.printPregenTasks(orderedResults.values());
+			FileManager.writePregenTasksToCSV(outputFile(PREGEN_TASKS_FILE), orderedResults, cells);
+			System.out.println("Pregen task results saved to " + outputFile(PREGEN_TASKS_FILE));
+		}
+
+		CampaignReport.printStartup(orderedResults.values(), FileManager.readStartupHistory(outputFile(STARTUP_HISTORY_FILE)), startupSetup(),
+				cells.values().stream().map(BenchmarkCell::startupLabel).distinct().toList());
+
+		FileManager.writeRunsToCSV(outputFile(RUNS_FILE), orderedResults, cells);
+		TraceRecorder.write(Paths.get(outputFile(TRACE_FILE)));
+		System.out.println("Results saved to " + outputFile(RESULTS_FILE) + " and " + outputFile(RUNS_FILE) + ", timeline saved to " + outputFile(TRACE_FILE));
 	}
 
 	/**
 	 * Runs the benchmark on a given seed.
 	 */
-	private static BenchmarkResult runBenchmark(String seed, List<String> cmd, int run) throws IOException, InterruptedException {
-		// Delete the previous world
+	private static BenchmarkResult runBenchmark(BenchmarkCell cell, RunKey key, List<String> cmd, int run) throws IOException, InterruptedException {
+		String seed = key.seed();
+		// Delete the previous world and place the new one on the storage under test
+		if (!cell.usesDefaultStorage()) {
+			System.out.println("Placing the world on " + cell.worldStoragePath());
+		}
 		Path worldDir = Paths.get(WORLD_DIR);
-		if (Files.exists(worldDir)) {
-			FileManager.deleteDirectory(worldDir);
+		try (TraceRecorder.Span ignored = TraceRecorder.span("world delete", "storage", cell.storageLabel())) {
+			FileManager.prepareWorldDirectory(worldDir, cell.worldStoragePath());
 		}
 
-		// Copy over any datapacks
-		FileManager.copyDatapacks(DATAPACK_DIR, WORLD_DATAPACK_DIR);
-
 		// Select the seed.
 		FileManager.updateConfigLine(Paths.get(SERVER_DIR, SERVER_PROPERTIES_FILE), "level-seed", "level-seed=" + seed);
 
+		if (benchmarkConfig.usesWorldTemplates()) {
+			try (TraceRecorder.Span ignored = TraceRecorder.span("world template restore", "seed", seed)) {
+				restoreWorldTemplate(worldDir, cell, seed, cmd);
+			}
+		}
+
+		// Copy over any datapacks
+		try (TraceRecorder.Span ignored = TraceRecorder.span("datapack copy")) {
+			FileManager.copyDatapacks(DATAPACK_DIR, WORLD_DATAPACK_DIR);
+		}
+
+		// The JVM appends to an existing GC log, which would mix in the pauses of earlier runs.
+		Path gcLog = Paths.get(SERVER_DIR, GcLogParser.LOG_FILE);
+		Files.deleteIfExists(gcLog);
+
+		// Recorded with the result, so an update of the runtime behind a Java home is visible in the results
+		JavaRuntime javaRuntime = JavaRuntimes.probe(cell.javaHome());
+		List<PregenTask> pregenTasks = benchmarkConfig.resolvePregenTasks();
+		LogArchive.Writer logArchive = null;
+		if (benchmarkConfig.archiveLogs()) {
+			String fileName = key.configHash() + "-" + seed.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + (key.repetition() + 1) + ".log.gz";
+			logArchive = new LogArchive.Writer(Paths.get(outputFile(LOG_ARCHIVE_DIR), fileName), new LogArchiveHeader(LogArchive.VERSION, key.configHash(), cell.label(), seed,
+					key.repetition(), benchmarkConfig.generationRadius(), System.currentTimeMillis(), pregenTasks.stream().map(PregenTask::label).toList(),
+					benchmarkConfig.tickQueryIntervalSeconds()));
+		}
+
 		System.out.print("Starting server ... ");
-		if (!serverManager.startServer(cmd)) {
+		if (!serverManager.startServer(cmd, logArchive)) {
 			throw new IOException("Failed to start server, or server took too long to start.");
 		}
-		System.out.println("Done");
-		Thread.sleep(5000);
+		StartupProfile startup = serverManager.getStartupProfile();
+		System.out.println("Done (" + startup.description() + ")");
+		FileManager.appendStartupHistoryToCSV(outputFile(STARTUP_HISTORY_FILE), key, cell.startupLabel(), startupSetup(), startup);
 
-		// Configure the thread preset.
-		serverManager.executeCommand("dh config common.threadPreset " + benchmarkConfig.threadPreset());
-		Thread.sleep(5000);
+		try (TraceRecorder.Span ignored = TraceRecorder.span("preset apply", "pid", serverManager.getServerPid(), "thread_preset", benchmarkConfig.threadPreset())) {
+			Thread.sleep(5000);
+
+			// Configure the thread preset.
+			serverManager.executeCommand("dh config common.threadPreset " + benchmarkConfig.threadPreset());
+			Thread.sleep(5000);
+
+			// Configure what is generated, LOD_ONLY only builds LODs from chunks that already exist.
+			serverManager.executeCommand("dh config common.worldGenerator.distantGeneratorMode " + cell.scenario().distantGeneratorMode());
+			Thread.sleep(5000);
+		}
+
+		TickSummary idleTicks = null;
+		if (benchmarkConfig.measuresTicks() && benchmarkConfig.tickBaselineSeconds() > 0) {
+			System.out.print("Measuring idle tick times for " + benchmarkConfig.tickBaselineSeconds() + " seconds ... ");
+			try (TraceRecorder.Span ignored = TraceRecorder.span("idle tick baseline")) {
+				idleTicks = measureIdleTicks();
+			}
+			System.out.println(idleTicks != null ? String.format("%.2f ms per tick", idleTicks.averageMspt()) : "no response to " + TickSampler.COMMAND);
+		}
 
 		// Start pregen.
-		System.out.println("Starting pregen run " + (run + 1) + " with radius " + benchmarkConfig.generationRadius() + " for seed " + seed);
-		serverManager.executeCommand("dh pregen start minecraft:overworld 0 0 " + benchmarkConfig.generationRadius());
+		if (pregenTasks.size() == 1) {
+			System.out.println("Starting " + cell.scenario() + " pregen run " + (run + 1) + " with radius " + pregenTasks.getFirst().radius() + " for seed " + seed);
+		} else {
+			System.out.println("Starting " + cell.scenario() + " pregen run " + (run + 1) + " with " + pregenTasks.size() + " tasks for seed " + seed);
+		}
+		TraceRecorder.Span pregenSpan = TraceRecorder.span("pregen", "pid", serverManager.getServerPid(), "scenario", cell.scenario(),
+				"tasks", pregenTasks.size(), "chunks", Math.round(benchmarkConfig.totalChunks()));
+		PregenLogParser pregenParser = new PregenLogParser(pregenTasks);
+		AtomicReference<TraceRecorder.Span> taskSpan = new AtomicReference<>(startPregenTask(pregenParser.currentTask()));
+		ThermalSampler thermalSampler = new ThermalSampler(benchmarkConfig.throttleThresholdPercent());
+		TickSampler tickSampler = benchmarkConfig.measuresTicks() ? new TickSampler(benchmarkConfig.tickQueryIntervalSeconds(), serverManager::executeCommand) : null;
 
-		AtomicLong benchmarkStartTime = new AtomicLong(0);
-		AtomicLong elapsedTime = new AtomicLong(0);
-		AtomicBoolean pregenComplete = new AtomicBoolean(false);
+		AtomicLong startWriteBytes = new AtomicLong(-1);
 
 		AtomicReference<ProgressBar> progressBar = new AtomicReference<>(null);
-		Pattern dataExtractor = Pattern.compile("(\\d+(?:\\.\\d+)?)%");
 
 		// Initialize the progress bar if not in debug mode
 		if (!benchmarkConfig.debugMode()) {
@@ -235,55 +855,386 @@ public class Main {
 		}
 
 		// Read server output until pregen completes
-		while (serverManager.isServerRunning() && !pregenComplete.get()) {
-			serverManager.waitForLogMessage(line -> {
-				if (line.contains("Starting pregen")) {
-					benchmarkStartTime.set(System.nanoTime());
-					return false;
+		while (serverManager.isServerRunning() && !pregenParser.complete()) {
+			serverManager.waitForLogMessage((nanos, line) -> {
+				if (tickSampler != null) {
+					tickSampler.accept(nanos, line);
 				}
-
-				if (line.contains("Pregen is complete")) {
-					if (benchmarkStartTime.get() != 0) {
-						elapsedTime.set(System.nanoTime() - benchmarkStartTime.get());
+				return switch (pregenParser.accept(nanos, line)) {
+					case STARTED -> {
+						// Every pregen task logs its start, the measurements cover all tasks from the start of the first one
+						if (pregenParser.taskResults().isEmpty()) {
+							startWriteBytes.set(ProcessStats.readWriteBytes(serverManager.getServerPid()));
+							thermalSampler.restart();
+							if (tickSampler != null) {
+								tickSampler.start(nanos);
+							}
+						}
+						yield false;
 					}
-					if (progressBar.get() != null) {
-						progressBar.get().stepTo(100); // Ensure we show 100% at the end
-						progressBar.get().close();
+					case PROGRESS -> {
+						if (progressBar.get() != null) {
+							progressBar.get().stepTo(Math.round(pregenParser.progressPercent()));
+						}
+						TraceRecorder.counter("pregen progress (%)", pregenParser.progressPercent());
+						if (pregenParser.intervalCps() >= 0) {
+							TraceRecorder.counter("Cps", pregenParser.intervalCps());
+						}
+						yield false;
 					}
-					pregenComplete.set(true);
-					return true;
-				}
-
-				// Extract data from the DH generation line
-				if (progressBar.get() != null && line.contains("Generated radius:")) {
-					Matcher matcher = dataExtractor.matcher(line.replaceAll(",", "."));
-					if (matcher.find()) {
-						try {
-							double percentage = Double.parseDouble(matcher.group(1));
-							progressBar.get().stepTo(Math.round(percentage));
-						} catch (NumberFormatException ignored) {
+					case TASK_COMPLETE -> {
+						// DH runs one pregen at a time, so the next task is started once the previous one completed
+						taskSpan.get().close();
+						taskSpan.set(startPregenTask(pregenParser.currentTask()));
+						yield false;
+					}
+					case COMPLETE -> {
+						taskSpan.get().close();
+						if (progressBar.get() != null) {
+							progressBar.get().stepTo(100); // Ensure we show 100% at the end
+							progressBar.get().close();
 						}
+						yield true;
 					}
-				}
-
-				return false;
+					case NONE -> false;
+				};
 			});
 		}
 
-		if (pregenComplete.get()) {
-			System.out.println("Waiting 30 seconds before server shutdown to ensure DB is properly finalized...");
+		taskSpan.get().close();
+		pregenSpan.attribute("completed", pregenParser.complete()).close();
+		ThermalSummary thermal = thermalSampler.summarize();
+		TickSummary pregenTicks = tickSampler != null ? tickSampler.summarize() : null;
+
+		if (!pregenParser.complete()) {
+			// E.g. killed for running out of memory, or crashed. Saving it as a 0 Cps result would drag down the average of its cell
+			if (progressBar.get() != null) {
+				progressBar.get().close();
+			}
+			serverManager.stopServer(true);
+			throw new RunFailedException(String.format("The server stopped after %.0f%% of the pregen.", pregenParser.progressPercent()));
+		}
+
+		System.out.println("Waiting 30 seconds before server shutdown to ensure DB is properly finalized...");
+		try (TraceRecorder.Span ignored = TraceRecorder.span("finalize", "pid", serverManager.getServerPid())) {
 			Thread.sleep(30000); // Safety, otherwise DH will complain about SQLite being closed.
-			System.out.print("Stopping server ... ");
-			serverManager.stopServer(false);
-			System.out.println("Done");
 		}
 
+		// Procfs is gone once the server exited, so this is the last point the writes can be read.
+		long diskWriteBytes = -1;
+		long endWriteBytes = ProcessStats.readWriteBytes(serverManager.getServerPid());
+		if (startWriteBytes.get() >= 0 && endWriteBytes >= 0) {
+			diskWriteBytes = endWriteBytes - startWriteBytes.get();
+		}
+		Path walPath = Paths.get(DH_DB_FILE + "-wal");
+		long walSize = Files.exists(walPath) ? Files.size(walPath) : 0;
+		long peakRssBytes = ProcessStats.readPeakRssBytes(serverManager.getServerPid());
+
+		System.out.print("Stopping server ... ");
+		serverManager.stopServer(false);
+		System.out.println("Done");
+
 		Path dhDbPath = Paths.get(DH_DB_FILE);
 		long dbSize = Files.exists(dhDbPath) ? Files.size(dhDbPath) : 0;
-		long avgCps = Math.round(Math.pow(benchmarkConfig.generationRadius() * 2, 2) / Duration.ofNanos(elapsedTime.get()).getSeconds());
-		System.out.println("Pregen completed in " + formatDuration(elapsedTime.get()) + ", Chunks per second: " + avgCps + ", Database size: " + Math.round(dbSize / (1024.0 * 1024.0)) + "MB");
+		long avgCps = pregenParser.averageCps();
+		List<ReadBenchmarkResult> readBenchmarks = new ArrayList<>();
+		if (benchmarkConfig.readBenchmark() && Files.exists(dhDbPath)) {
+			try (TraceRecorder.Span ignored = TraceRecorder.span("read benchmark")) {
+				readBenchmarks = runReadBenchmark(dhDbPath);
+			}
+		}
+
+		GcSummary gc = null;
+		if (Files.exists(gcLog)) {
+			gc = GcLogParser.parse(gcLog);
+		}
+
+		BenchmarkResult result = new BenchmarkResult(pregenParser.elapsedNanos(), dbSize, avgCps, diskWriteBytes, walSize, readBenchmarks, thermal, gc, peakRssBytes,
+				pregenParser.taskResults(), idleTicks, pregenTicks, javaRuntime, startup, HostFingerprints.current(), HostFingerprints.storage(worldDir));
+		System.out.println("Pregen completed in " + formatDuration(pregenParser.elapsedNanos()) + ", Chunks per second: " + avgCps + ", Database size: " + Math.round(dbSize / (1024.0 * 1024.0)) + "MB");
+		if (pregenTasks.size() > 1) {
+			for (PregenTaskResult task : result.pregenTasks()) {
+				System.out.println(String.format("- %s: %s, Cps: %.0f", task.task(), formatDuration(task.elapsedTime()), task.averageCps()));
+			}
+		}
+		System.out.println("Database write throughput: " + String.format("%.2f", result.dbWriteThroughput() / (1024.0 * 1024.0)) + " MB/s"
+				+ (diskWriteBytes >= 0 ? ", Disk writes: " + Math.round(diskWriteBytes / (1024.0 * 1024.0)) + " MB" : ""));
+		if (gc != null || peakRssBytes >= 0) {
+			System.out.println("Heap: " + cell.ramGb() + " GB"
+					+ (gc != null ? String.format(", GC pauses: %d (%.1f%% of the time)", gc.pauseCount(), gc.pauseTimeSharePercent()) : "")
+					+ (peakRssBytes >= 0 ? ", Peak RSS: " + Math.round(peakRssBytes / (1024.0 * 1024.0)) + " MB" : ""));
+		}
+		printTickSummary(result);
+		printThermalSummary(result);
+
+		if (benchmarkConfig.analyzeDatabase() && Files.exists(dhDbPath)) {
+			try (TraceRecorder.Span ignored = TraceRecorder.span("database analysis")) {
+				analyzeDatabase(dhDbPath, key, result);
+			}
+		}
 		System.out.println();
-		return new BenchmarkResult(elapsedTime.get(), dbSize, avgCps);
+		return result;
+	}
+
+	/**
+	 * Describes what the server loads at startup: the Distant Horizons download, the other mods and the custom datapacks.
+	 * Server starts with the same setup and cell settings are compared in the startup history.
+	 */
+	private static String startupSetup() throws IOException {
+		String setup;
+		if (benchmarkConfig.fakeServer()) {
+			setup = "fake server";
+		} else {
+			String dhUrl = benchmarkConfig.dhDownloadUrl();
+			// The jar is always saved under the same name, so the download tells DH versions apart
+			setup = "DH " + dhUrl.substring(dhUrl.lastIndexOf('/') + 1);
+			List<String> mods = listFileNames(MODS_DIR).stream().filter(name -> !name.equals(DH_JAR)).toList();
+			if (!mods.isEmpty()) {
+				setup += "; mods: " + String.join(" ", mods);
+			}
+		}
+		List<String> datapacks = listFileNames(DATAPACK_DIR);
+		return setup + "; datapacks: " + (datapacks.isEmpty() ? "none" : String.join(" ", datapacks));
+	}
+
+	private static List<String> listFileNames(String directory) throws IOException {
+		if (!Files.isDirectory(Paths.get(directory))) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(Paths.get(directory))) {
+			return files.map(file -> file.getFileName().toString()).sorted().toList();
+		}
+	}
+
+	/**
+	 * Sends the command of a pregen task and opens its span, which is closed once the task completes.
+	 */
+	private static TraceRecorder.Span startPregenTask(PregenTask task) {
+		TraceRecorder.Span span = TraceRecorder.span("pregen task", "task", task.label(), "chunks", Math.round(task.chunks()));
+		serverManager.executeCommand(task.command());
+		return span;
+	}
+
+	/**
+	 * Runs "tick query" on the idle server for the baseline duration and summarizes the answers.
+	 */
+	private static TickSummary measureIdleTicks() {
+		TickSampler sampler = new TickSampler(benchmarkConfig.tickQueryIntervalSeconds(), serverManager::executeCommand);
+		sampler.start(System.nanoTime());
+		serverManager.waitForLogMessage((nanos, line) -> {
+			sampler.accept(nanos, line);
+			return false;
+		}, benchmarkConfig.tickBaselineSeconds());
+		return sampler.summarize();
+	}
+
+	/**
+	 * Prints the tick times during the pregen compared to the idle server, and warns if ticks exceeded their time budget.
+	 */
+	private static void printTickSummary(BenchmarkResult result) {
+		TickSummary ticks = result.pregenTicks();
+		if (ticks == null) {
+			return;
+		}
+
+		StringBuilder summary = new StringBuilder(String.format("Tick time during pregen: %.2f ms", ticks.averageMspt()));
+		result.msptIncrease().ifPresent(increase -> summary.append(String.format(" (%+.2f ms over idle)", increase)));
+		summary.append(String.format(", P50: %.1f ms, P95: %.1f ms, P99: %.1f ms", ticks.p50Ms(), ticks.p95Ms(), ticks.p99Ms()));
+		System.out.println(summary);
+
+		if (ticks.exceedsBudget()) {
+			System.out.println(String.format("WARNING: The slowest ticks took up to %.1f ms, over the %.0f ms budget of a tick, players would notice lag during the pregen.",
+					ticks.maxP99Ms(), TickSummary.TICK_BUDGET_MS));
+		}
+	}
+
+	/**
+	 * Prints the CPU frequency, temperature and power draw of a run, and warns if it was throttled.
+	 */
+	private static void printThermalSummary(BenchmarkResult result) {
+		ThermalSummary thermal = result.thermal();
+		if (thermal.averageFrequencyMhz() < 0) {
+			return;
+		}
+
+		StringBuilder summary = new StringBuilder(String.format("Average CPU frequency: %.0f MHz (%.0f MHz at the start)", thermal.averageFrequencyMhz(), thermal.startFrequencyMhz()));
+		if (thermal.maxTemperatureC() >= 0) {
+			summary.append(String.format(", Max temperature: %.1f °C", thermal.maxTemperatureC()));
+		}
+		if (result.cpsPerWatt() >= 0) {
+			summary.append(String.format(", Average power: %.1f W, Cps per watt: %.2f", thermal.averageWatts(result.elapsedTime()), result.cpsPerWatt()));
+		}
+		System.out.println(summary);
+
+		if (thermal.throttled()) {
+			System.out.println(String.format("WARNING: The CPU frequency dropped by %.1f%% during the run, the result is likely limited by cooling.", thermal.frequencyDropPercent()));
+		}
+	}
+
+	/**
+	 * Reads the LODs back from the database with every access pattern.
+	 * A failed read benchmark is reported but doesn't fail the run, as the pregen measurement is already complete.
+	 */
+	private static List<ReadBenchmarkResult> runReadBenchmark(Path dhDbPath) {
+		List<ReadBenchmarkResult> results = new ArrayList<>();
+		try {
+			for (LodReadBenchmark.AccessPattern pattern : LodReadBenchmark.AccessPattern.values()) {
+				System.out.print("Running " + pattern + " read benchmark with " + benchmarkConfig.readBenchmarkThreads() + " readers ... ");
+				ReadBenchmarkResult read = LodReadBenchmark.run(dhDbPath, pattern, benchmarkConfig.readBenchmarkThreads(), benchmarkConfig.readBenchmarkQueries());
+				System.out.println(String.format("%.0f queries/s, p50: %.1f µs, p99: %.1f µs", read.queriesPerSecond(), read.p50Nanos() / 1000.0, read.p99Nanos() / 1000.0));
+				results.add(read);
+			}
+		} catch (SQLException e) {
+			System.out.println("Failed");
+			System.err.println("Error running the read benchmark:");
+			e.printStackTrace();
+		}
+		return results;
+	}
+
+	/**
+	 * Prints where the bytes of the database went and saves the analysis to a CSV file.
+	 * A failed analysis is reported but doesn't fail the run, as the measurement itself is already complete.
+	 */
+	private static void analyzeDatabase(Path dhDbPath, RunKey key, BenchmarkResult result) {
+		try {
+			DatabaseAnalysis analysis = DatabaseAnalyzer.analyze(dhDbPath);
+			double chunks = benchmarkConfig.totalChunks();
+
+			System.out.println("Database analysis: " + analysis.pageCount() + " pages of " + analysis.pageSize() + " bytes, "
+					+ analysis.freelistCount() + " free pages (" + Math.round(analysis.freelistBytes() / (1024.0 * 1024.0)) + " MB)");
+			for (DatabaseAnalysis.TableStats table : analysis.tables()) {
+				String name = table.detailLevel() < 0 ? table.table() : table.table() + " detail level " + table.detailLevel();
+				System.out.println("- " + name + ": " + table.rows() + " rows, " + Math.round(table.payloadBytes() / (1024.0 * 1024.0)) + " MB");
+			}
+			analysis.diskBytesByObject().forEach((name, bytes) -> System.out.println("- " + name + " on disk: " + Math.round(bytes / (1024.0 * 1024.0)) + " MB"));
+			System.out.println("WAL size at shutdown: " + Math.round(result.walSize() / (1024.0 * 1024.0)) + " MB, Bytes per chunk: " + Math.round(result.dbSize() / chunks)
+					+ (result.writeAmplification() >= 0 ? String.format(", Write amplification: %.2fx", result.writeAmplification()) : ""));
+
+			FileManager.appendDatabaseAnalysisToCSV(outputFile(DB_ANALYSIS_FILE), key, analysis);
+		} catch (SQLException | IOException e) {
+			System.err.println("Error analyzing the Distant Horizons database:");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Restores the template world of the given seed into the empty world directory.
+	 * If there is no template yet, it is captured from the world the server creates on its first start.
+	 */
+	private static void restoreWorldTemplate(Path worldDir, BenchmarkCell cell, String seed, List<String> cmd) throws IOException {
+		Path template = Paths.get(benchmarkConfig.worldTemplateDir(), seed);
+
+		if (!Files.isDirectory(template)) {
+			if (cell.scenario() == Scenario.LOD_ONLY) {
+				throw new IOException("The LOD_ONLY scenario needs a pre-generated world template for seed " + seed + " in " + template);
+			}
+			System.out.print("Capturing world template for seed " + seed + " ... ");
+			FileManager.copyDatapacks(DATAPACK_DIR, WORLD_DATAPACK_DIR);
+			if (!serverManager.startServer(cmd)) {
+				throw new IOException("Failed to start server, or server took too long to start.");
+			}
+			serverManager.stopServer(false);
+
+			WorldSnapshot.capture(worldDir, template);
+			FileManager.prepareWorldDirectory(worldDir, cell.worldStoragePath());
+			System.out.println("Done");
+		}
+
+		long restoreStart = System.nanoTime();
+		WorldSnapshot.Strategy strategy = WorldSnapshot.restore(template, worldDir);
+		long restoreMillis = (System.nanoTime() - restoreStart) / 1_000_000;
+		System.out.println("Restored world template for seed " + seed + " in " + restoreMillis + " ms (" + strategy + ")");
+	}
+
+	/**
+	 * Checks the progress journal for results of a previous, unfinished benchmark and asks whether to resume it, unless --resume or --fresh decided it already.
+	 * Returns the completed runs that can be reused, which is empty when starting from the beginning,
+	 * or null if the progress can't be resumed and must not be discarded.
+	 */
+	private static Map<RunKey, BenchmarkResult> resumeProgress(ProgressJournal journal, List<RunKey> plannedRuns, Set<String> configHashes) throws IOException {
+		if (journal.corruptEntries() > 0) {
+			System.out.println("Ignored " + journal.corruptEntries() + " damaged entries in the progress journal, the affected runs will be repeated.");
+		}
+
+		if (options.resume() == CliOptions.Resume.FRESH) {
+			journal.clear();
+			return new LinkedHashMap<>();
+		}
+
+		Map<RunKey, BenchmarkResult> completedRuns = journal.completedRuns();
+		if (benchmarkConfig.javaHomes().stream().anyMatch(JavaRuntimes::isAuto)) {
+			// "auto" only finds the runtimes installed right now, the results of a runtime that was removed since can't be resumed,
+			// but they weren't recorded with a different configuration either
+			Set<String> homes = Set.copyOf(JavaRuntimes.expand(benchmarkConfig.javaHomes()));
+			int before = completedRuns.size();
+			completedRuns.entrySet().removeIf(run -> !configHashes.contains(run.getKey().configHash()) && run.getValue().javaRuntime() != null
+					&& !run.getValue().javaRuntime().home().isBlank() && !homes.contains(run.getValue().javaRuntime().home()));
+			if (completedRuns.size() < before) {
+				System.out.println("Ignored " + (before - completedRuns.size()) + " results of Java runtimes that are no longer installed.");
+			}
+		}
+		long foreignRuns = completedRuns.keySet().stream().filter(key -> !configHashes.contains(key.configHash())).count();
+		if (foreignRuns > 0) {
+			System.out.println("The progress journal contains " + foreignRuns + " results that were recorded with a different configuration and can't be mixed with the current one.");
+			if (options.resume() == CliOptions.Resume.RESUME || !askYesNo("Discard the previous progress and start from the beginning? (y/N): ")) {
+				System.err.println("Restore the previous configuration to resume the benchmark, or pass --fresh to discard the progress. Exiting.");
+				return null;
+			}
+			journal.clear();
+			return new LinkedHashMap<>();
+		}
+
+		completedRuns.keySet().retainAll(plannedRuns);
+		if (completedRuns.isEmpty()) {
+			return new LinkedHashMap<>();
+		}
+
+		if (completedRuns.size() == plannedRuns.size()) {
+			System.out.println("All runs have already been benchmarked, reusing the recorded results.");
+			return completedRuns;
+		}
+
+		System.out.println("Found previous benchmark progress. " + completedRuns.size() + " out of " + plannedRuns.size() + " runs were completed.");
+		long interruptedRuns = journal.interruptedRuns().stream().filter(plannedRuns::contains).count();
+		if (interruptedRuns > 0) {
+			System.out.println(interruptedRuns + " run(s) were interrupted and will be repeated from the beginning.");
+		}
+		long failedRuns = journal.failedRuns().keySet().stream().filter(plannedRuns::contains).count();
+		if (failedRuns > 0) {
+			System.out.println(failedRuns + " run(s) failed and will be repeated.");
+		}
+
+		if (options.resume() == CliOptions.Resume.RESUME || askYesNo("Would you like to resume the benchmark? (y/N): ")) {
+			System.out.println("Resuming benchmark, skipping the completed runs.");
+			return completedRuns;
+		}
+
+		System.out.println("Starting benchmark from the beginning.");
+		journal.clear();
+		return new LinkedHashMap<>();
+	}
+
+	/**
+	 * Asks the user a yes/no question on the console, defaulting to no.
+	 */
+	private static boolean askYesNo(String question) {
+		System.out.print(question);
+		return INPUT.hasNextLine() && INPUT.nextLine().trim().equalsIgnoreCase("y");
+	}
+
+	/**
+	 * Gets the path of an output file in the directory given with --output.
+	 */
+	private static String outputFile(String name) {
+		return outputDir.resolve(name).toString();
+	}
+
+	private static String formatRunName(RunKey key) {
+		if (benchmarkConfig.repetitions() > 1) {
+			return "Seed " + key.seed() + " (Repetition " + (key.repetition() + 1) + ")";
+		}
+		return "Seed " + key.seed();
 	}
 
 	public static String formatDuration(long nanos) {
@@ -0,0 +1,13 @@
+package com.skillnoob.dh.benchmark;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a single run didn't produce a result, e.g. because the server was killed for running out of memory before the pregen completed.
+ * Unlike other errors, the campaign goes on with the next run and the failed run is repeated on resume.
+ */
+public class RunFailedException extends IOException {
+	public RunFailedException(String message) {
+		super(message);
+	}
+}
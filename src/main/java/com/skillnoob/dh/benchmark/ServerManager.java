@@ -1,14 +1,22 @@
 package com.skillnoob.dh.benchmark;
 
 import com.skillnoob.dh.benchmark.data.BenchmarkConfig;
+import com.skillnoob.dh.benchmark.data.StartupPhase;
+import com.skillnoob.dh.benchmark.data.StartupProfile;
+import com.skillnoob.dh.benchmark.util.GcLogParser;
+import com.skillnoob.dh.benchmark.util.JavaRuntimes;
+import com.skillnoob.dh.benchmark.util.LogArchive;
 import com.skillnoob.dh.benchmark.util.LogMonitor;
+import com.skillnoob.dh.benchmark.util.StartupLogParser;
+import com.skillnoob.dh.benchmark.util.TraceRecorder;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
 
 public class ServerManager {
     private static final String SERVER_DIR = "server";
@@ -19,6 +27,8 @@ public class ServerManager {
     private PrintWriter processWriter = null;
     private BufferedReader processReader = null;
     private LogMonitor logMonitor = null;
+    private LogArchive.Writer logArchive = null;
+    private StartupProfile startupProfile = null;
 
     public ServerManager(BenchmarkConfig config) {
         this.config = config;
@@ -34,39 +44,87 @@ public class ServerManager {
      * Starts the server with the given command and waits until it finished starting.
      */
     public boolean startServer(List<String> command) throws IOException {
+        return startServer(command, null);
+    }
+
+    /**
+     * Starts the server with the given command and waits until it finished starting.
+     * All server output is written to the archive, if one is given. The archive is closed when the server stops,
+     * or right away if the server doesn't finish starting, in which case it is killed.
+     */
+    public boolean startServer(List<String> command, LogArchive.Writer archive) throws IOException {
+        // Otherwise the log monitor and archive of the previous server would be replaced without being closed
+        stopServer(false);
+
         ProcessBuilder pb = new ProcessBuilder(command).directory(new File(SERVER_DIR)).redirectErrorStream(true);
+        // The JVM refuses to start if the directory of the GC log is missing, which is the case before the first start.
+        Files.createDirectories(Paths.get(SERVER_DIR, GcLogParser.LOG_FILE).getParent());
 
-        serverProcess = pb.start();
-        processReader = new BufferedReader(new InputStreamReader(serverProcess.getInputStream(), StandardCharsets.UTF_8));
-        processWriter = new PrintWriter(serverProcess.getOutputStream(), true);
-        logMonitor = new LogMonitor(processReader, config.debugMode());
+        try (TraceRecorder.Span span = TraceRecorder.span("jvm start")) {
+            long launchNanos = System.nanoTime();
+            StartupLogParser startup = new StartupLogParser(launchNanos);
+            serverProcess = pb.start();
+            span.attribute("pid", serverProcess.pid());
+            processReader = new BufferedReader(new InputStreamReader(serverProcess.getInputStream(), StandardCharsets.UTF_8));
+            processWriter = new PrintWriter(serverProcess.getOutputStream(), true);
+            logArchive = archive;
+            logMonitor = new LogMonitor(processReader, config.debugMode(), archive);
+
+            boolean started = waitForLogMessage(startup::accept, (int) (120 * config.timeoutScale()));
+            span.attribute("started", started);
+            if (!started) {
+                stopServer(true);
+            }
+
+            startupProfile = startup.profile();
+            for (StartupPhase phase : StartupPhase.values()) {
+                long end = startupProfile.endNanos(phase);
+                if (end >= 0) {
+                    TraceRecorder.completedSpan(phase.label(), launchNanos + end - startupProfile.duration(phase), launchNanos + end);
+                }
+            }
+            return started;
+        }
+    }
 
-        return waitForLogMessage(line -> line.contains("Done"), (int) (120 * config.timeoutScale()));
+    /**
+     * Gets the phases of the last server start, or null if no server was started yet.
+     */
+    public StartupProfile getStartupProfile() {
+        return startupProfile;
     }
 
     /**
      * Stops the server and waits for process termination.
+     * The resources of the server are closed even if it already exited by itself, e.g. because it crashed.
      */
     public void stopServer(boolean kill) {
-        if (serverProcess != null && serverProcess.isAlive()) {
-            try {
-                if (kill) {
-                    serverProcess.destroyForcibly();
-                } else {
-                    executeCommand("stop");
-
-                    boolean terminated = serverProcess.waitFor((long) (120 * config.timeoutScale()), TimeUnit.SECONDS);
-                    if (!terminated) {
-                        System.out.println("Server did not stop gracefully, forcing termination");
-                        serverProcess.destroyForcibly();
+        Process process = serverProcess;
+        if (process == null) {
+            return;
+        }
+
+        try {
+            if (process.isAlive()) {
+                try (TraceRecorder.Span ignored = TraceRecorder.span("shutdown", "pid", process.pid(), "forced", kill)) {
+                    if (kill) {
+                        process.destroyForcibly();
+                    } else {
+                        executeCommand("stop");
+
+                        boolean terminated = process.waitFor((long) (120 * config.timeoutScale()), TimeUnit.SECONDS);
+                        if (!terminated) {
+                            System.out.println("Server did not stop gracefully, forcing termination");
+                            process.destroyForcibly();
+                        }
                     }
                 }
-            } catch (Exception e) {
-                System.err.println("Error stopping server:");
-                e.printStackTrace();
-            } finally {
-                closeResources();
             }
+        } catch (Exception e) {
+            System.err.println("Error stopping server:");
+            e.printStackTrace();
+        } finally {
+            closeResources();
         }
     }
 
@@ -82,17 +140,17 @@ public class ServerManager {
     }
 
     /**
-     * Waits for a specific message in the server logs that matches the predicate.
+     * Waits for a specific message in the server logs that matches the predicate, which also gets the time the line was read at.
      */
-    public boolean waitForLogMessage(Predicate<String> messagePredicate, int timeoutSeconds) {
+    public boolean waitForLogMessage(LogMonitor.LinePredicate messagePredicate, int timeoutSeconds) {
         try {
             long start = System.nanoTime();
             long timeoutNanos = timeoutSeconds == 0 ? Long.MAX_VALUE : timeoutSeconds * 1_000_000_000L;
 
             while (isServerRunning() && (System.nanoTime() - start) < timeoutNanos) {
-                String line = logMonitor.pollLine(1, TimeUnit.SECONDS);
+                LogMonitor.Line line = logMonitor.pollLine(1, TimeUnit.SECONDS);
 
-                if (line != null && messagePredicate.test(line)) {
+                if (line != null && messagePredicate.test(line.nanos(), line.text())) {
                     return true;
                 }
             }
@@ -105,7 +163,7 @@ public class ServerManager {
     /**
      * Waits for a specific message in the server logs that matches the predicate with no timeout.
      */
-    public void waitForLogMessage(Predicate<String> messagePredicate) {
+    public void waitForLogMessage(LogMonitor.LinePredicate messagePredicate) {
         waitForLogMessage(messagePredicate, 0);
     }
 
@@ -120,18 +178,49 @@ public class ServerManager {
     }
 
     /**
-     * Gets the standard command list for starting the server.
+     * Gets the process ID of the running server, or -1 if no server is running.
+     */
+    public long getServerPid() {
+        Process process = serverProcess;
+        return process != null && process.isAlive() ? process.pid() : -1;
+    }
+
+    /**
+     * Gets the standard command list for starting the server with the configured heap size and the first configured Java home.
      */
     public List<String> getServerStartCommand() {
+        List<String> javaHomes = JavaRuntimes.expand(config.javaHomes());
+        return getServerStartCommand(config.ramGb(), javaHomes.isEmpty() ? "" : javaHomes.getFirst());
+    }
+
+    /**
+     * Gets the standard command list for starting the server with the given heap size.
+     */
+    public List<String> getServerStartCommand(int ramGb) {
+        return getServerStartCommand(ramGb, "");
+    }
+
+    /**
+     * Gets the standard command list for starting the server with the given heap size and Java home, an empty home uses the java on the PATH.
+     */
+    public List<String> getServerStartCommand(int ramGb, String javaHome) {
         List<String> command = new ArrayList<>();
-        command.add("java");
-        command.add("-Xmx" + config.ramGb() + "G");
+        command.add(JavaRuntimes.executable(javaHome));
+        command.add("-Xmx" + ramGb + "G");
+        if (config.fixedHeap()) {
+            command.add("-Xms" + ramGb + "G");
+        }
+        command.add(GcLogParser.LOG_OPTION);
         String extraArgs = config.extraJvmArgs();
         if (extraArgs != null && !extraArgs.isBlank()) {
             command.addAll(List.of(extraArgs.trim().split("\\s+")));
         }
-        command.add("-jar");
-        command.add(FABRIC_JAR);
+        if (config.fakeServer()) {
+            command.addAll(FakeServer.startArguments(config));
+        } else {
+            command.add("-jar");
+            command.add(FABRIC_JAR);
+        }
         command.add("nogui");
         return command;
     }
@@ -146,17 +235,35 @@ public class ServerManager {
                 processWriter = null;
             }
             if (processReader != null) {
-                processReader.close();
+                BufferedReader reader = processReader;
                 processReader = null;
+                reader.close();
             }
+        } catch (IOException e) {
+            System.err.println("Error closing resources:");
+            e.printStackTrace();
+        } finally {
+            // Closed even if the reader failed to close, an unfinished archive can't be replayed
             if (logMonitor != null) {
                 logMonitor.close();
                 logMonitor = null;
             }
+            closeLogArchive();
             serverProcess = null;
+        }
+    }
+
+    private void closeLogArchive() {
+        if (logArchive == null) {
+            return;
+        }
+        try {
+            logArchive.close();
         } catch (IOException e) {
-            System.err.println("Error closing resources:");
+            System.err.println("Error closing the log archive:");
             e.printStackTrace();
+        } finally {
+            logArchive = null;
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single cell of the benchmark campaign, holding the values of every campaign dimension.
+ * All seeds and repetitions are run once per cell.
+ */
+public record BenchmarkCell(String worldStoragePath, Scenario scenario, String cpuPlacement, String cgroupLimits, int ramGb, String javaHome) {
+    /**
+     * Builds every combination of the campaign dimensions configured in the given config.
+     * javaHomes are the Java homes of the config, with "auto" already resolved on the host that runs the benchmark.
+     */
+    public static List<BenchmarkCell> fromConfig(BenchmarkConfig config, List<String> javaHomes) {
+        List<String> storagePaths = config.worldStoragePaths().isEmpty() ? List.of("") : config.worldStoragePaths();
+        List<Scenario> scenarios = config.scenarios().isEmpty() ? List.of(Scenario.FULL) : config.scenarios();
+        List<String> cpuPlacements = config.cpuPlacements().isEmpty() ? List.of("") : config.cpuPlacements();
+        List<String> cgroupLimits = config.cgroupLimits().isEmpty() ? List.of("") : config.cgroupLimits();
+        List<Integer> heapSizes = config.heapSweepGb().isEmpty() ? List.of(config.ramGb()) : config.heapSweepGb();
+
+        if (scenarios.contains(Scenario.LOD_ONLY) && !config.usesWorldTemplates()) {
+            throw new IllegalArgumentException("The LOD_ONLY scenario needs pre-generated chunks, set world_template_dir to use it.");
+        }
+
+        List<BenchmarkCell> cells = new ArrayList<>();
+        for (String storagePath : storagePaths) {
+            for (Scenario scenario : scenarios) {
+                for (String cpuPlacement : cpuPlacements) {
+                    for (String limits : cgroupLimits) {
+                        for (int ramGb : heapSizes) {
+                            for (String javaHome : javaHomes.isEmpty() ? List.of("") : javaHomes) {
+                                cells.add(new BenchmarkCell(storagePath.trim(), scenario, cpuPlacement.trim(), limits.trim(), ramGb, javaHome.trim()));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Hashes the base config together with the values of this cell.
+     */
+    public String configHash(BenchmarkConfig config) {
+        // The java on the PATH isn't hashed, so cells that don't set a Java home keep the hash they had before Java homes existed
+        if (usesDefaultJava()) {
+            return BenchmarkConfig.hash(config.configHash(), worldStoragePath, scenario.name(), cpuPlacement, cgroupLimits, String.valueOf(ramGb));
+        }
+        return BenchmarkConfig.hash(config.configHash(), worldStoragePath, scenario.name(), cpuPlacement, cgroupLimits, String.valueOf(ramGb), javaHome);
+    }
+
+    public boolean usesDefaultStorage() {
+        return worldStoragePath.isBlank();
+    }
+
+    public String storageLabel() {
+        return usesDefaultStorage() ? "default" : worldStoragePath;
+    }
+
+    public boolean usesDefaultJava() {
+        return javaHome == null || javaHome.isBlank();
+    }
+
+    public String jdkLabel() {
+        return usesDefaultJava() ? "default" : javaHome;
+    }
+
+    public String placementLabel() {
+        return cpuPlacement.isBlank() ? "unpinned" : cpuPlacement;
+    }
+
+    public String limitsLabel() {
+        return cgroupLimits.isBlank() ? "unlimited" : cgroupLimits;
+    }
+
+    /**
+     * Describes the settings of this cell that change how long the server takes to start, i.e. all but the scenario.
+     * Contains no commas, so it can be written to a CSV column as it is.
+     */
+    public String startupLabel() {
+        return ("storage=" + storageLabel() + "; placement=" + placementLabel() + "; limits=" + limitsLabel() + "; heap=" + ramGb + "GB; jdk=" + jdkLabel()).replace(',', ' ');
+    }
+
+    /**
+     * A human-readable description of this cell.
+     */
+    public String label() {
+        return "storage=" + storageLabel() + ", scenario=" + scenario + ", placement=" + placementLabel() + ", limits=" + limitsLabel() + ", heap=" + ramGb + "GB, jdk=" + jdkLabel();
+    }
+}
@@ -1,16 +1,125 @@
 package com.skillnoob.dh.benchmark.data;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 public record BenchmarkConfig(
         int ramGb,
         List<String> seeds,
+        int repetitions,
         String threadPreset,
         int generationRadius,
         String fabricDownloadUrl,
         String dhDownloadUrl,
         String extraJvmArgs,
         boolean debugMode,
-        double timeoutScale
+        double timeoutScale,
+        List<String> worldStoragePaths,
+        String worldTemplateDir,
+        List<Scenario> scenarios,
+        boolean analyzeDatabase,
+        boolean readBenchmark,
+        int readBenchmarkThreads,
+        int readBenchmarkQueries,
+        List<String> cpuPlacements,
+        double throttleThresholdPercent,
+        List<String> cgroupLimits,
+        String cgroupMode,
+        String cgroupParent,
+        List<Integer> heapSweepGb,
+        boolean fixedHeap,
+        double heapKneeTolerancePercent,
+        boolean archiveLogs,
+        int workerLeaseSeconds,
+        List<String> pregenTasks,
+        int tickQueryIntervalSeconds,
+        int tickBaselineSeconds,
+        List<String> javaHomes,
+        boolean fakeServer,
+        int fakeServerCps,
+        int fakeServerLogLinesPerSecond
 ) {
+    // Defaults of the values that are only hashed when changed, so the hashes of campaigns from before they existed stay the same
+    public static final int DEFAULT_READ_BENCHMARK_THREADS = 8;
+    public static final int DEFAULT_READ_BENCHMARK_QUERIES = 100000;
+    public static final int DEFAULT_TICK_QUERY_INTERVAL_SECONDS = 5;
+    public static final int DEFAULT_TICK_BASELINE_SECONDS = 20;
+
+    /**
+     * Hashes every value that influences the measured results, so results from different configurations are never mixed.
+     * Seeds and repetitions are not part of the hash, because they are tracked per run,
+     * and neither are the campaign dimensions (including the heap size and the Java runtime), which are hashed per {@link BenchmarkCell}.
+     */
+    public String configHash() {
+        List<String> values = new ArrayList<>(List.of(
+                threadPreset,
+                String.valueOf(generationRadius),
+                fabricDownloadUrl,
+                dhDownloadUrl,
+                extraJvmArgs == null ? "" : extraJvmArgs.trim(),
+                worldTemplateDir,
+                String.valueOf(fixedHeap)
+        ));
+        // Only hashed when set, so the hash of the classic single task stays the same as before pregen tasks existed
+        if (pregenTasks != null && !pregenTasks.isEmpty()) {
+            values.add(String.join(";", resolvePregenTasks().stream().map(PregenTask::label).toList()));
+        }
+        // The queries run on the server thread during the pregen, and the baseline delays its start
+        if (tickQueryIntervalSeconds != DEFAULT_TICK_QUERY_INTERVAL_SECONDS) {
+            values.add("tick query interval " + tickQueryIntervalSeconds);
+        }
+        if (measuresTicks() && tickBaselineSeconds != DEFAULT_TICK_BASELINE_SECONDS) {
+            values.add("tick baseline " + tickBaselineSeconds);
+        }
+        if (readBenchmark && (readBenchmarkThreads != DEFAULT_READ_BENCHMARK_THREADS || readBenchmarkQueries != DEFAULT_READ_BENCHMARK_QUERIES)) {
+            values.add("read benchmark " + readBenchmarkThreads + " " + readBenchmarkQueries);
+        }
+        // Results of the fake server must never be mixed with real ones
+        if (fakeServer) {
+            values.add("fake server " + fakeServerCps + " " + fakeServerLogLinesPerSecond);
+        }
+        return hash(values.toArray(String[]::new));
+    }
+
+    /**
+     * The pregen tasks of every run, or a single task at the overworld's origin with the generation radius if none are configured.
+     */
+    public List<PregenTask> resolvePregenTasks() {
+        if (pregenTasks == null || pregenTasks.isEmpty()) {
+            return List.of(PregenTask.atOrigin(generationRadius));
+        }
+        return pregenTasks.stream().map(PregenTask::parse).toList();
+    }
+
+    /**
+     * The number of chunks all pregen tasks of a run generate together.
+     */
+    public double totalChunks() {
+        return resolvePregenTasks().stream().mapToDouble(PregenTask::chunks).sum();
+    }
+
+    public boolean measuresTicks() {
+        return tickQueryIntervalSeconds > 0;
+    }
+
+    public boolean usesWorldTemplates() {
+        return worldTemplateDir != null && !worldTemplateDir.isBlank();
+    }
+
+    /**
+     * Creates a short, stable hash of the given values.
+     */
+    public static String hash(String... values) {
+        String identity = String.join("\n", values);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
@@ -1,4 +1,62 @@
 package com.skillnoob.dh.benchmark.data;
 
-public record BenchmarkResult(long elapsedTime, long dbSize, long averageCps) {
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * The result of a single run. diskWriteBytes is the amount of data the server wrote to storage from the start of the pregen until shutdown,
+ * and walSize the size of the database's write-ahead log right before shutdown. Both are -1 if they couldn't be measured.
+ * readBenchmarks is empty if the read benchmark is disabled. gc is null and peakRssBytes -1 if they couldn't be measured.
+ * pregenTasks holds the completed pregen tasks in the order they ran, elapsedTime and averageCps cover all of them together.
+ * idleTicks and pregenTicks are the tick times before and during the pregen, null if they weren't measured.
+ * javaRuntime is the runtime the server ran on, null for results recorded before it was tracked.
+ * startup holds the phases of the server start before the pregen, null for results recorded before it was tracked.
+ * host is the fingerprint of the host the run was benchmarked on, null for results recorded before it was tracked.
+ * storage is the storage the world of the run was on, null for results recorded before it was tracked.
+ */
+public record BenchmarkResult(long elapsedTime, long dbSize, long averageCps, long diskWriteBytes, long walSize, List<ReadBenchmarkResult> readBenchmarks,
+                              ThermalSummary thermal, GcSummary gc, long peakRssBytes, List<PregenTaskResult> pregenTasks,
+                              TickSummary idleTicks, TickSummary pregenTicks, JavaRuntime javaRuntime, StartupProfile startup,
+                              HostFingerprint host, StorageDevice storage) {
+    /**
+     * The rate the Distant Horizons database grew with during the pregen, in bytes per second.
+     */
+    public double dbWriteThroughput() {
+        return elapsedTime > 0 ? dbSize / (elapsedTime / 1_000_000_000.0) : 0;
+    }
+
+    /**
+     * How many bytes were written to storage for every byte that ended up in the database, or -1 if unknown.
+     */
+    public double writeAmplification() {
+        return diskWriteBytes >= 0 && dbSize > 0 ? (double) diskWriteBytes / dbSize : -1;
+    }
+
+    /**
+     * Gets the read benchmark result of the given access pattern, if it was run.
+     */
+    public Optional<ReadBenchmarkResult> readBenchmark(String pattern) {
+        // Results recorded before the read benchmark existed have no list at all
+        return readBenchmarks == null ? Optional.empty() : readBenchmarks.stream().filter(read -> read.pattern().equals(pattern)).findFirst();
+    }
+
+    /**
+     * Chunks generated per second for every watt the CPU package drew, or -1 if the energy use is unknown.
+     */
+    public double cpsPerWatt() {
+        double watts = thermal == null ? -1 : thermal.averageWatts(elapsedTime);
+        return watts > 0 ? averageCps / watts : -1;
+    }
+
+    /**
+     * How many milliseconds the pregen added to the average tick time, if both the idle and the pregen tick times were measured.
+     */
+    public OptionalDouble msptIncrease() {
+        return idleTicks != null && pregenTicks != null ? OptionalDouble.of(pregenTicks.averageMspt() - idleTicks.averageMspt()) : OptionalDouble.empty();
+    }
+
+    public boolean throttled() {
+        return thermal != null && thermal.throttled();
+    }
 }
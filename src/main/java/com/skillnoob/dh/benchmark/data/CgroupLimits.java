@@ -0,0 +1,54 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.Locale;
+
+/**
+ * Resource limits the server is started with, parsed from a spec like "cpu=4;memory=16G;io=/dev/nvme0n1 wbps=104857600".
+ * cpus may be fractional, 0 means unlimited for cpus and memoryBytes, an empty io means no io limit.
+ * io is a device (path or major:minor) followed by io.max keys: rbps, wbps, riops and wiops.
+ */
+public record CgroupLimits(double cpus, long memoryBytes, String io) {
+    public static CgroupLimits parse(String spec) {
+        double cpus = 0;
+        long memoryBytes = 0;
+        String io = "";
+
+        for (String part : spec.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid cgroup limit \"" + part.trim() + "\" in \"" + spec + "\", expected key=value.");
+            }
+
+            String value = keyValue[1].trim();
+            switch (keyValue[0].trim().toLowerCase(Locale.ROOT)) {
+                case "cpu", "cpus" -> cpus = Double.parseDouble(value);
+                case "memory", "mem" -> memoryBytes = parseSize(value);
+                case "io" -> io = value;
+                default -> throw new IllegalArgumentException("Unknown cgroup limit \"" + keyValue[0].trim() + "\" in \"" + spec + "\", supported are cpu, memory and io.");
+            }
+        }
+
+        return new CgroupLimits(cpus, memoryBytes, io);
+    }
+
+    /**
+     * Parses a size with an optional K, M, G or T suffix, e.g. "16G".
+     */
+    public static long parseSize(String size) {
+        String value = size.trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (!value.isEmpty() && "KMGT".indexOf(value.charAt(value.length() - 1)) >= 0) {
+            multiplier = 1L << (10 * ("KMGT".indexOf(value.charAt(value.length() - 1)) + 1));
+            value = value.substring(0, value.length() - 1);
+        }
+        return Math.round(Double.parseDouble(value) * multiplier);
+    }
+
+    public boolean isUnlimited() {
+        return cpus <= 0 && memoryBytes <= 0 && io.isBlank();
+    }
+}
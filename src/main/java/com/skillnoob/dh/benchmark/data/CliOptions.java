@@ -0,0 +1,120 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The command line options, which allow running a benchmark without any prompt.
+ */
+public record CliOptions(
+        Mode mode,
+        boolean acceptEula,
+        Resume resume,
+        String configFile,
+        Map<String, String> overrides,
+        String outputDir,
+        boolean hardwareInfo,
+        String replayPath,
+        int coordinatorPort,
+        String coordinatorUrl
+) {
+    public static final String USAGE = """
+            Usage: java -jar DH-Autobenchmark.jar [options]
+              --accept-eula              Accept Mojang's EULA (https://aka.ms/MinecraftEULA) without asking
+              --resume                   Resume unfinished progress without asking, fails if it doesn't match the configuration
+              --fresh                    Discard unfinished progress without asking
+              --config <file>            Config file to use instead of dh-benchmark.toml
+              --set <key>=<value>        Overrides a config value for this invocation only, the value is parsed as TOML, can be repeated
+              --output <dir>             Directory for the results, the progress journal, the trace and the log archives
+              --hardware-info            Collects the hardware information after the benchmark (root is needed for RAM details on Linux)
+              --collect-hardware-info    Only adds the hardware information to the results of a previous benchmark
+              --replay <archive|dir>     Only re-evaluates archived server logs
+              --coordinator <port>       Hands out the runs of the campaign to workers instead of running them
+              --worker <url>             Runs the runs handed out by the coordinator at the url, e.g. http://localhost:8080
+              --help                     Shows this help""";
+
+    public enum Mode {
+        BENCHMARK,
+        COLLECT_HARDWARE_INFO,
+        REPLAY,
+        COORDINATOR,
+        WORKER,
+        HELP
+    }
+
+    public enum Resume {
+        ASK,
+        RESUME,
+        FRESH
+    }
+
+    /**
+     * Parses the command line, throwing an IllegalArgumentException for unknown or incomplete options.
+     */
+    public static CliOptions parse(String[] args) {
+        Mode mode = Mode.BENCHMARK;
+        boolean acceptEula = false;
+        Resume resume = Resume.ASK;
+        String configFile = null;
+        Map<String, String> overrides = new LinkedHashMap<>();
+        String outputDir = "";
+        boolean hardwareInfo = false;
+        String replayPath = null;
+        int coordinatorPort = 0;
+        String coordinatorUrl = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--accept-eula" -> acceptEula = true;
+                case "--resume", "--fresh" -> {
+                    Resume requested = arg.equals("--resume") ? Resume.RESUME : Resume.FRESH;
+                    if (resume != Resume.ASK && resume != requested) {
+                        throw new IllegalArgumentException("--resume and --fresh can't be combined.");
+                    }
+                    resume = requested;
+                }
+                case "--config" -> configFile = value(args, ++i, arg);
+                case "--set" -> {
+                    String override = value(args, ++i, arg);
+                    int separator = override.indexOf('=');
+                    if (separator <= 0) {
+                        throw new IllegalArgumentException("Invalid override \"" + override + "\", expected key=value.");
+                    }
+                    overrides.put(override.substring(0, separator).trim(), override.substring(separator + 1).trim());
+                }
+                case "--output" -> outputDir = value(args, ++i, arg);
+                case "--hardware-info" -> hardwareInfo = true;
+                case "--collect-hardware-info" -> mode = Mode.COLLECT_HARDWARE_INFO;
+                case "--replay" -> {
+                    mode = Mode.REPLAY;
+                    replayPath = value(args, ++i, arg);
+                }
+                case "--coordinator" -> {
+                    mode = Mode.COORDINATOR;
+                    String port = value(args, ++i, arg);
+                    try {
+                        coordinatorPort = Integer.parseInt(port);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid port \"" + port + "\".");
+                    }
+                }
+                case "--worker" -> {
+                    mode = Mode.WORKER;
+                    coordinatorUrl = value(args, ++i, arg);
+                }
+                case "--help", "-h" -> mode = Mode.HELP;
+                default -> throw new IllegalArgumentException("Unknown option \"" + arg + "\".");
+            }
+        }
+
+        return new CliOptions(mode, acceptEula, resume, configFile, overrides, outputDir, hardwareInfo, replayPath, coordinatorPort, coordinatorUrl);
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length || args[index].startsWith("--")) {
+            throw new IllegalArgumentException(option + " requires a value.");
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,18 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CPU topology server processes are placed against.
+ * numaNodes holds the CPU list (e.g. "0-7,16-23") of every NUMA node by its node ID, which don't have to be contiguous.
+ * l3Domains holds the CPU list of every group of CPUs sharing an L3 cache, ordered by their first CPU. Both are empty on systems that don't expose them.
+ */
+public record CpuTopology(int sockets, int logicalCpus, Map<Integer, String> numaNodes, List<String> l3Domains) {
+    @Override
+    public String toString() {
+        return sockets + " socket(s), " + logicalCpus + " logical CPUs, "
+                + numaNodes.size() + " NUMA node(s) " + numaNodes + ", "
+                + l3Domains.size() + " L3 domain(s) " + l3Domains;
+    }
+}
@@ -0,0 +1,18 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the bytes of a Distant Horizons database go.
+ * A table without a detail level column is reported as a single entry with a detail level of -1.
+ * diskBytesByObject holds the on-disk size of every table and index, and is empty if SQLite was built without the dbstat table.
+ */
+public record DatabaseAnalysis(long pageSize, long pageCount, long freelistCount, List<TableStats> tables, Map<String, Long> diskBytesByObject) {
+    public record TableStats(String table, int detailLevel, long rows, long payloadBytes) {
+    }
+
+    public long freelistBytes() {
+        return freelistCount * pageSize;
+    }
+}
@@ -0,0 +1,13 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * The garbage collection pauses of a server run, parsed from its GC log.
+ */
+public record GcSummary(long pauseCount, double totalPauseMillis, double uptimeSeconds) {
+    /**
+     * The share of the server's lifetime spent in GC pauses, in percent.
+     */
+    public double pauseTimeSharePercent() {
+        return uptimeSeconds > 0 ? totalPauseMillis / (uptimeSeconds * 1000) * 100 : 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hardware and software of the host a run was benchmarked on, as collected by HostFingerprints.
+ * hostId is a hash of the CPU and memory only, so it stays the same across kernel, JVM and governor changes, which are recorded separately.
+ * The storage isn't part of it either, as it depends on the directory a run uses and is recorded with every result.
+ * caches lists the cache sizes of the first CPU, e.g. "L1d 48K L1i 32K L2 2048K L3 32768K". numaNodes is 0 if unknown.
+ */
+public record HostFingerprint(String hostId, String cpuModel, int sockets, int physicalCores, int logicalCpus, String caches, int numaNodes,
+                              String governor, long memoryBytes, String kernel, String os, String jvm) {
+    /**
+     * Creates a fingerprint and derives the host ID from its hardware.
+     */
+    public static HostFingerprint of(String cpuModel, int sockets, int physicalCores, int logicalCpus, String caches, int numaNodes,
+                                     String governor, long memoryBytes, String kernel, String os, String jvm) {
+        // The memory is rounded, as the kernel reserves a slightly different amount after an update
+        String hostId = BenchmarkConfig.hash(cpuModel, String.valueOf(sockets), String.valueOf(physicalCores), String.valueOf(logicalCpus), caches,
+                String.valueOf(numaNodes), String.valueOf(Math.round(memoryBytes / (1024.0 * 1024.0 * 1024.0))));
+        return new HostFingerprint(hostId, cpuModel, sockets, physicalCores, logicalCpus, caches, numaNodes, governor, memoryBytes, kernel, os, jvm);
+    }
+
+    /**
+     * The memory in GB, rounded to whole gigabytes.
+     */
+    public long memoryGb() {
+        return Math.round(memoryBytes / (1024.0 * 1024.0 * 1024.0));
+    }
+
+    public String description() {
+        List<String> parts = new ArrayList<>();
+        parts.add(cpuModel + " " + physicalCores + "C/" + logicalCpus + "T" + (sockets > 1 ? " in " + sockets + " sockets" : ""));
+        if (!caches.isEmpty()) {
+            parts.add(caches);
+        }
+        if (numaNodes > 1) {
+            parts.add(numaNodes + " NUMA nodes");
+        }
+        parts.add(memoryGb() + " GB");
+        if (!governor.isEmpty()) {
+            parts.add("governor " + governor);
+        }
+        parts.add(os + " " + kernel);
+        parts.add(jvm);
+        return String.join(", ", parts);
+    }
+}
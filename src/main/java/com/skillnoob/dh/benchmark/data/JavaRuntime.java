@@ -0,0 +1,11 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * A Java runtime the server can be started with, as reported by its "java -version".
+ * home is empty for the java on the PATH. runtime is the name and build of the runtime, e.g. "OpenJDK Runtime Environment Temurin-21.0.1+12 (build 21.0.1+12-LTS)".
+ */
+public record JavaRuntime(String home, int featureVersion, String version, String runtime) {
+    public String description() {
+        return version + (runtime.isBlank() ? "" : " (" + runtime + ")");
+    }
+}
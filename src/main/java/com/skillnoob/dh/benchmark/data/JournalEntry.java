@@ -0,0 +1,18 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * A single record of the progress journal.
+ * START entries are written before a run begins, COMPLETE entries carry the result of a finished run.
+ * FAILED entries carry the reason a run didn't produce a result, such a run is repeated on resume.
+ */
+public record JournalEntry(Type type, String configHash, String seed, int repetition, BenchmarkResult result, String failure) {
+    public enum Type {
+        START,
+        COMPLETE,
+        FAILED
+    }
+
+    public RunKey key() {
+        return new RunKey(configHash, seed, repetition);
+    }
+}
@@ -0,0 +1,11 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * A run handed out to a worker by the coordinator. The lease expires unless the worker renews it with heartbeats
+ * within leaseSeconds, after which the run is handed out again.
+ */
+public record Lease(String leaseId, String configHash, String seed, int repetition, BenchmarkCell cell, BenchmarkConfig config, int leaseSeconds) {
+    public RunKey key() {
+        return new RunKey(configHash, seed, repetition);
+    }
+}
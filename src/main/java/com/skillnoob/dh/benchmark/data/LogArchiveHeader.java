@@ -0,0 +1,18 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.List;
+
+/**
+ * Describes the run a log archive was recorded for, so it can be replayed without the campaign configuration.
+ * pregenTasks is missing in archives recorded before pregen tasks existed, which ran a single task of generationRadius.
+ * tickQueryIntervalSeconds is 0 if the tick times weren't queried, which includes archives recorded before they were archived.
+ */
+public record LogArchiveHeader(int version, String configHash, String cell, String seed, int repetition, int generationRadius, long startedAtMillis,
+                               List<String> pregenTasks, int tickQueryIntervalSeconds) {
+    public List<PregenTask> resolvePregenTasks() {
+        if (pregenTasks == null || pregenTasks.isEmpty()) {
+            return List.of(PregenTask.atOrigin(generationRadius));
+        }
+        return pregenTasks.stream().map(PregenTask::parse).toList();
+    }
+}
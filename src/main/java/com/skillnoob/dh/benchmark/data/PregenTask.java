@@ -0,0 +1,44 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * A pregen task of a run, parsed from a spec like "minecraft:the_nether 1000 -500 64": the dimension, the center block coordinates and the radius in chunks.
+ */
+public record PregenTask(String dimension, int centerX, int centerZ, int radius) {
+    public static final String DEFAULT_DIMENSION = "minecraft:overworld";
+
+    public static PregenTask parse(String spec) {
+        String[] parts = spec.trim().split("\\s+");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid pregen task \"" + spec.trim() + "\", expected \"<dimension> <x> <z> <radius>\".");
+        }
+
+        try {
+            PregenTask task = new PregenTask(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+            if (task.radius() <= 0) {
+                throw new IllegalArgumentException("The radius of the pregen task \"" + spec.trim() + "\" must be positive.");
+            }
+            return task;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pregen task \"" + spec.trim() + "\", the center and radius must be whole numbers.");
+        }
+    }
+
+    /**
+     * The classic single task, centered on the overworld's origin.
+     */
+    public static PregenTask atOrigin(int radius) {
+        return new PregenTask(DEFAULT_DIMENSION, 0, 0, radius);
+    }
+
+    public double chunks() {
+        return Math.pow(radius * 2, 2);
+    }
+
+    public String command() {
+        return "dh pregen start " + dimension + " " + centerX + " " + centerZ + " " + radius;
+    }
+
+    public String label() {
+        return dimension + " " + centerX + " " + centerZ + " " + radius;
+    }
+}
@@ -0,0 +1,10 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * The timing of one pregen task of a run. elapsedTime is in nanoseconds, from the start of the task until DH reported it complete.
+ */
+public record PregenTaskResult(String task, long chunks, long elapsedTime) {
+    public double averageCps() {
+        return elapsedTime > 0 ? chunks / (elapsedTime / 1_000_000_000.0) : 0;
+    }
+}
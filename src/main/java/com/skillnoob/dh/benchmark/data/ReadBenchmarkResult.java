@@ -0,0 +1,7 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * The result of reading LODs back from the database with one access pattern.
+ */
+public record ReadBenchmarkResult(String pattern, long queries, double queriesPerSecond, long p50Nanos, long p99Nanos) {
+}
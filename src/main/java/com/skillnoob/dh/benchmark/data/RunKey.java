@@ -0,0 +1,7 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * Identifies a single benchmark run: one repetition of one seed under one configuration.
+ */
+public record RunKey(String configHash, String seed, int repetition) {
+}
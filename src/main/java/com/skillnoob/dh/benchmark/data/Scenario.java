@@ -0,0 +1,29 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * What part of the LOD pipeline a run measures.
+ */
+public enum Scenario {
+    /**
+     * Vanilla chunk generation, LOD building and database writes, the classic pregen benchmark.
+     */
+    FULL("FEATURES"),
+    /**
+     * Only LOD building and database writes over chunks that already exist in the template world.
+     */
+    LOD_ONLY("PRE_EXISTING_ONLY");
+
+    private final String distantGeneratorMode;
+
+    Scenario(String distantGeneratorMode) {
+        this.distantGeneratorMode = distantGeneratorMode;
+    }
+
+    /**
+     * The Distant Horizons distant generator mode that is set for this scenario.
+     * FULL uses the Distant Horizons default, but it is still set because the mode is persisted in the server's DH config.
+     */
+    public String distantGeneratorMode() {
+        return distantGeneratorMode;
+    }
+}
@@ -0,0 +1,52 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * The phases of a server start, in the order they run. Every phase ends with the first log line that matches it.
+ */
+public enum StartupPhase {
+    /**
+     * Launching the JVM until the Fabric loader starts.
+     */
+    JVM_LAUNCH("JVM launch"),
+    /**
+     * Mod discovery, mixin setup and the initialization of the mods that run before Distant Horizons, until Distant Horizons logs for the first time.
+     */
+    MOD_LOADING("mod loading"),
+    /**
+     * The initialization of Distant Horizons and any mods after it, until the server itself starts.
+     */
+    DH_INIT("DH init"),
+    /**
+     * Loading the server properties, registries and datapacks, until the world is loaded.
+     */
+    SERVER_INIT("server init"),
+    /**
+     * Loading the world and preparing the spawn area, until the server is done starting.
+     */
+    WORLD_PREPARATION("world preparation");
+
+    private final String label;
+
+    StartupPhase(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Whether the given log line marks the end of this phase.
+     */
+    public boolean endsWith(String line) {
+        return switch (this) {
+            case JVM_LAUNCH -> line.contains("with Fabric Loader");
+            // Matched case-sensitively, so the lowercase mod id in Fabric's list of mods doesn't count
+            case MOD_LOADING -> line.contains("DistantHorizons") || line.contains("Distant Horizons");
+            case DH_INIT -> line.contains("Starting minecraft server version");
+            case SERVER_INIT -> line.contains("Preparing level");
+            // The harness has always treated the first line with "Done" as the end of the start
+            case WORLD_PREPARATION -> line.contains("Done");
+        };
+    }
+}
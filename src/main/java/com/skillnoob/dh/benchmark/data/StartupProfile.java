@@ -0,0 +1,49 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How long the phases of a server start took, in nanoseconds. A phase whose log line never appeared is missing,
+ * its time counts towards the next phase that did appear. totalNanos is the time from launching the JVM until the server was done starting.
+ */
+public record StartupProfile(Map<StartupPhase, Long> phaseNanos, long totalNanos) {
+    /**
+     * Gets how long the given phase took, or -1 if it wasn't seen.
+     */
+    public long duration(StartupPhase phase) {
+        return phaseNanos.getOrDefault(phase, -1L);
+    }
+
+    /**
+     * Gets the time since launching the JVM at which the line that ended the given phase was read, or -1 if it wasn't seen.
+     */
+    public long endNanos(StartupPhase phase) {
+        if (!phaseNanos.containsKey(phase)) {
+            return -1;
+        }
+        long end = 0;
+        for (StartupPhase previous : StartupPhase.values()) {
+            end += phaseNanos.getOrDefault(previous, 0L);
+            if (previous == phase) {
+                break;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Describes the total and every phase that was seen, e.g. "12.3 s: JVM launch 0.8 s, mod loading 4.1 s, ...".
+     */
+    public String description() {
+        List<String> phases = new ArrayList<>();
+        for (StartupPhase phase : StartupPhase.values()) {
+            if (phaseNanos.containsKey(phase)) {
+                phases.add(String.format(Locale.ROOT, "%s %.1f s", phase.label(), phaseNanos.get(phase) / 1_000_000_000.0));
+            }
+        }
+        return String.format(Locale.ROOT, "%.1f s", totalNanos / 1_000_000_000.0) + (phases.isEmpty() ? "" : ": " + String.join(", ", phases));
+    }
+}
@@ -0,0 +1,11 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * The storage a path is stored on. model is the disk model, or the filesystem type for storage without a disk, e.g. "tmpfs".
+ * rotational is null if unknown.
+ */
+public record StorageDevice(String model, Boolean rotational) {
+    public String description() {
+        return model + (rotational == null ? "" : rotational ? " (HDD)" : " (SSD)");
+    }
+}
@@ -0,0 +1,21 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * CPU frequency, temperature and energy use sampled during a pregen.
+ * Every value is -1 if the system doesn't expose it, e.g. RAPL energy counters are usually only readable as root.
+ */
+public record ThermalSummary(double startFrequencyMhz, double averageFrequencyMhz, double minFrequencyMhz, double maxTemperatureC, double energyJoules, boolean throttled) {
+    /**
+     * How far the average frequency dropped below the frequency at the start of the run, in percent.
+     */
+    public double frequencyDropPercent() {
+        return startFrequencyMhz > 0 && averageFrequencyMhz > 0 ? (startFrequencyMhz - averageFrequencyMhz) / startFrequencyMhz * 100 : 0;
+    }
+
+    /**
+     * The average power draw over the given duration, or -1 if the energy is unknown.
+     */
+    public double averageWatts(long elapsedNanos) {
+        return energyJoules >= 0 && elapsedNanos > 0 ? energyJoules / (elapsedNanos / 1_000_000_000.0) : -1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.skillnoob.dh.benchmark.data;
+
+/**
+ * The main loop tick times reported by the server's "tick query" command over a phase of a run.
+ * The server reports the average and percentiles of its last 100 ticks, so every value is the average over all queried windows,
+ * except maxP99Ms, which is the P99 of the worst window.
+ */
+public record TickSummary(int samples, double averageMspt, double p50Ms, double p95Ms, double p99Ms, double maxP99Ms) {
+    // A tick that takes longer than this delays the next one, at the default rate of 20 ticks per second
+    public static final double TICK_BUDGET_MS = 50;
+
+    public boolean exceedsBudget() {
+        return maxP99Ms > TICK_BUDGET_MS;
+    }
+}
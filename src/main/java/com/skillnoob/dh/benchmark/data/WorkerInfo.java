@@ -0,0 +1,10 @@
+package com.skillnoob.dh.benchmark.data;
+
+import java.util.List;
+
+/**
+ * Identifies a worker of a distributed campaign and the hardware it runs on, so results can be attributed to a host.
+ * hardware holds the CPU, RAM and the drive of the server directory as collected by HostFingerprints, hostId the ID of the host's fingerprint.
+ */
+public record WorkerInfo(String workerId, String hostname, String os, int logicalCpus, List<String> hardware, String hostId) {
+}
@@ -0,0 +1,231 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.BenchmarkConfig;
+import com.skillnoob.dh.benchmark.data.CgroupLimits;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Starts the server inside a cgroup v2 with cpu.max, memory.max and io.max limits, to model smaller hosts on a big machine (Linux only).
+ * Uses a transient "systemd-run --user --scope" unit, or writes the limits directly to a delegated cgroupfs directory.
+ */
+public class CgroupLauncher {
+	private static final long CPU_PERIOD_MICROS = 100_000;
+	private static final Map<String, String> SYSTEMD_IO_PROPERTIES = Map.of(
+			"rbps", "IOReadBandwidthMax",
+			"wbps", "IOWriteBandwidthMax",
+			"riops", "IOReadIOPSMax",
+			"wiops", "IOWriteIOPSMax"
+	);
+
+	public enum Mode {
+		AUTO,
+		SYSTEMD,
+		CGROUPFS
+	}
+
+	/**
+	 * Prefixes the command so the server starts inside a cgroup with the given limits.
+	 */
+	public static List<String> wrapCommand(String limitsSpec, BenchmarkConfig config, List<String> command) throws IOException {
+		CgroupLimits limits = CgroupLimits.parse(limitsSpec);
+		if (limits.isUnlimited()) {
+			return command;
+		}
+
+		if (!System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")) {
+			throw new IllegalStateException("cgroup limits are only supported on Linux.");
+		}
+
+		return resolveMode(config) == Mode.SYSTEMD ? wrapWithSystemd(limits, command) : wrapWithCgroupfs(limits, limitsSpec, Paths.get(config.cgroupParent()), command);
+	}
+
+	/**
+	 * Checks every limit spec, the mode and in cgroupfs mode the parent, so a typo or a missing delegation is reported before the campaign starts instead of hours into it.
+	 * The controllers the limits need are enabled in the parent right away.
+	 */
+	public static void validate(List<String> limitsSpecs, BenchmarkConfig config) {
+		Mode.valueOf(config.cgroupMode().trim().toUpperCase(Locale.ROOT));
+		List<CgroupLimits> limits = limitsSpecs.stream().map(CgroupLimits::parse).filter(limit -> !limit.isUnlimited()).toList();
+		if (limits.isEmpty()) {
+			return;
+		}
+
+		if (!System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")) {
+			throw new IllegalStateException("cgroup limits are only supported on Linux.");
+		}
+
+		if (resolveMode(config) == Mode.SYSTEMD) {
+			if (FileManager.findExecutable("systemd-run") == null) {
+				throw new IllegalStateException("cgroup_mode SYSTEMD requires systemd-run, which was not found on the PATH.");
+			}
+		} else {
+			Set<String> controllers = new LinkedHashSet<>();
+			limits.forEach(limit -> controllers.addAll(requiredControllers(limit)));
+			enableControllers(Paths.get(config.cgroupParent()), controllers);
+		}
+	}
+
+	/**
+	 * Removes the cgroup directory created for the given limits once the server exited, only used in cgroupfs mode.
+	 */
+	public static void cleanup(String limitsSpec, BenchmarkConfig config) {
+		Path cgroup = Paths.get(config.cgroupParent(), cgroupName(limitsSpec));
+		try {
+			// cgroups can only be removed with rmdir when they are empty, their interface files don't count
+			if (Files.isDirectory(cgroup) && Files.readString(cgroup.resolve("cgroup.procs")).isBlank()) {
+				Files.delete(cgroup);
+			}
+		} catch (IOException ignored) {
+		}
+	}
+
+	private static Mode resolveMode(BenchmarkConfig config) {
+		Mode mode = Mode.valueOf(config.cgroupMode().trim().toUpperCase(Locale.ROOT));
+		if (mode == Mode.AUTO) {
+			return FileManager.findExecutable("systemd-run") != null ? Mode.SYSTEMD : Mode.CGROUPFS;
+		}
+		return mode;
+	}
+
+	private static List<String> wrapWithSystemd(CgroupLimits limits, List<String> command) throws IOException {
+		String systemdRun = FileManager.findExecutable("systemd-run");
+		if (systemdRun == null) {
+			throw new IllegalStateException("cgroup_mode SYSTEMD requires systemd-run, which was not found on the PATH.");
+		}
+
+		// A scope runs the command in the foreground, so the server keeps the PID that is monitored
+		List<String> wrapped = new ArrayList<>(List.of(systemdRun, "--user", "--scope", "--quiet"));
+		if (limits.cpus() > 0) {
+			wrapped.addAll(List.of("-p", "CPUQuota=" + Math.round(limits.cpus() * 100) + "%"));
+		}
+		if (limits.memoryBytes() > 0) {
+			// Swapping would hide the memory limit behind disk I/O
+			wrapped.addAll(List.of("-p", "MemoryMax=" + limits.memoryBytes(), "-p", "MemorySwapMax=0"));
+		}
+		if (!limits.io().isBlank()) {
+			String[] io = limits.io().trim().split("\\s+");
+			String device = toDevicePath(io[0]);
+			for (int i = 1; i < io.length; i++) {
+				String[] keyValue = io[i].split("=", 2);
+				String property = SYSTEMD_IO_PROPERTIES.get(keyValue[0]);
+				if (property == null || keyValue.length != 2) {
+					throw new IllegalArgumentException("Invalid io limit \"" + io[i] + "\", supported are rbps, wbps, riops and wiops.");
+				}
+				wrapped.addAll(List.of("-p", property + "=" + device + " " + keyValue[1]));
+			}
+		}
+
+		wrapped.addAll(command);
+		return wrapped;
+	}
+
+	/**
+	 * Creates a child cgroup below the delegated parent, writes the limits and moves a shell into it that then executes the server,
+	 * so the server is limited from its first instruction on.
+	 */
+	private static List<String> wrapWithCgroupfs(CgroupLimits limits, String limitsSpec, Path parent, List<String> command) throws IOException {
+		enableControllers(parent, requiredControllers(limits));
+
+		Path cgroup = parent.resolve(cgroupName(limitsSpec));
+		Files.createDirectories(cgroup);
+
+		if (limits.cpus() > 0) {
+			Files.writeString(cgroup.resolve("cpu.max"), Math.round(limits.cpus() * CPU_PERIOD_MICROS) + " " + CPU_PERIOD_MICROS);
+		}
+		if (limits.memoryBytes() > 0) {
+			Files.writeString(cgroup.resolve("memory.max"), String.valueOf(limits.memoryBytes()));
+			Files.writeString(cgroup.resolve("memory.swap.max"), "0");
+		}
+		if (!limits.io().isBlank()) {
+			String[] io = limits.io().trim().split("\\s+", 2);
+			Files.writeString(cgroup.resolve("io.max"), toDeviceNumber(io[0]) + " " + (io.length > 1 ? io[1] : ""));
+		}
+
+		List<String> wrapped = new ArrayList<>(List.of("sh", "-c", "echo $$ > '" + cgroup.resolve("cgroup.procs") + "' && exec \"$@\"", "sh"));
+		wrapped.addAll(command);
+		return wrapped;
+	}
+
+	private static List<String> requiredControllers(CgroupLimits limits) {
+		List<String> controllers = new ArrayList<>();
+		if (limits.cpus() > 0) {
+			controllers.add("cpu");
+		}
+		if (limits.memoryBytes() > 0) {
+			controllers.add("memory");
+		}
+		if (!limits.io().isBlank()) {
+			controllers.add("io");
+		}
+		return controllers;
+	}
+
+	/**
+	 * Enables the controllers in the subtree of the parent, without them a child cgroup has no cpu.max, memory.max or io.max to write the limits to.
+	 */
+	private static void enableControllers(Path parent, Iterable<String> controllers) {
+		Path subtreeControl = parent.resolve("cgroup.subtree_control");
+		if (!Files.isWritable(subtreeControl)) {
+			throw new IllegalStateException("cgroup_parent " + parent + " is not a writable, delegated cgroup v2 directory.");
+		}
+
+		try {
+			List<String> available = Arrays.asList(Files.readString(parent.resolve("cgroup.controllers")).trim().split("\\s+"));
+			List<String> enabled = Arrays.asList(Files.readString(subtreeControl).trim().split("\\s+"));
+			List<String> missing = new ArrayList<>();
+			for (String controller : controllers) {
+				if (!available.contains(controller)) {
+					throw new IllegalStateException("The " + controller + " controller is not available in cgroup_parent " + parent + ", it has to be delegated to it first.");
+				}
+				if (!enabled.contains(controller)) {
+					missing.add("+" + controller);
+				}
+			}
+
+			if (!missing.isEmpty()) {
+				Files.writeString(subtreeControl, String.join(" ", missing));
+			}
+		} catch (IOException e) {
+			// cgroup v2 refuses to enable controllers for the children of a cgroup that has processes of its own
+			throw new IllegalStateException("Could not enable the controllers " + controllers + " in cgroup_parent " + parent
+					+ ", make sure it is delegated and contains no processes itself: " + e.getMessage(), e);
+		}
+	}
+
+	private static String cgroupName(String limitsSpec) {
+		return "dh-benchmark-" + BenchmarkConfig.hash(limitsSpec);
+	}
+
+	/**
+	 * Converts a major:minor device number to its /dev path, which is what systemd expects.
+	 */
+	private static String toDevicePath(String device) throws IOException {
+		if (!device.matches("\\d+:\\d+")) {
+			return device;
+		}
+		Path sysDevice = Paths.get("/sys/dev/block", device).toRealPath();
+		return "/dev/" + sysDevice.getFileName();
+	}
+
+	/**
+	 * Converts a /dev path to its major:minor device number, which is what io.max expects.
+	 */
+	private static String toDeviceNumber(String device) throws IOException {
+		if (device.matches("\\d+:\\d+")) {
+			return device;
+		}
+		String name = Paths.get(device).toRealPath().getFileName().toString();
+		return Files.readString(Paths.get("/sys/class/block", name, "dev")).trim();
+	}
+}
@@ -0,0 +1,92 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.google.gson.Gson;
+import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.Lease;
+import com.skillnoob.dh.benchmark.data.WorkerInfo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Talks to a campaign coordinator on behalf of a worker.
+ */
+public class CoordinatorClient implements AutoCloseable {
+	private static final Gson GSON = new Gson();
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+	private final URI baseUri;
+	private boolean campaignComplete = false;
+
+	public CoordinatorClient(String url) {
+		baseUri = URI.create(url.endsWith("/") ? url : url + "/");
+	}
+
+	/**
+	 * Asks for the next run. Empty if all remaining runs are leased to other workers, or if the campaign is complete.
+	 */
+	public Optional<Lease> lease(WorkerInfo worker) throws IOException, InterruptedException {
+		HttpResponse<String> response = post("lease", GSON.toJson(worker));
+		return switch (response.statusCode()) {
+			case 200 -> Optional.of(GSON.fromJson(response.body(), Lease.class));
+			case 204 -> Optional.empty();
+			case 410 -> {
+				campaignComplete = true;
+				yield Optional.empty();
+			}
+			default -> throw new IOException("Coordinator refused the lease (status code " + response.statusCode() + "): " + response.body());
+		};
+	}
+
+	/**
+	 * Renews a lease. Returns false if it already expired, in which case the run may have been handed out to another worker.
+	 */
+	public boolean heartbeat(String leaseId) throws IOException, InterruptedException {
+		return post("heartbeat/" + leaseId, "").statusCode() == 204;
+	}
+
+	public void submitResult(String leaseId, BenchmarkResult result) throws IOException, InterruptedException {
+		HttpResponse<String> response = post("result/" + leaseId, GSON.toJson(result));
+		if (response.statusCode() != 200) {
+			throw new IOException("Coordinator rejected the result (status code " + response.statusCode() + "): " + response.body());
+		}
+	}
+
+	/**
+	 * Reports that the run of a lease didn't produce a result.
+	 */
+	public void submitFailure(String leaseId, String reason) throws IOException, InterruptedException {
+		HttpResponse<String> response = post("failure/" + leaseId, GSON.toJson(Map.of("message", reason)));
+		if (response.statusCode() != 200) {
+			throw new IOException("Coordinator rejected the failure (status code " + response.statusCode() + "): " + response.body());
+		}
+	}
+
+	/**
+	 * Whether the coordinator reported that every run of the campaign is completed.
+	 */
+	public boolean campaignComplete() {
+		return campaignComplete;
+	}
+
+	private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+				.timeout(TIMEOUT)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Override
+	public void close() {
+		client.close();
+	}
+}
@@ -0,0 +1,89 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.CpuTopology;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Pins the server process to a set of CPUs by wrapping its start command with taskset or numactl (Linux only).
+ * Supported placements are "cpus:[cpu list]", "numa:[node]" and "l3:[domain]" (or "ccd:[domain]"), an empty placement leaves the scheduler alone.
+ */
+public class CpuPlacement {
+	/**
+	 * Prefixes the command with the wrapper for the given placement.
+	 */
+	public static List<String> wrapCommand(String placement, CpuTopology topology, List<String> command) {
+		if (placement.isBlank()) {
+			return command;
+		}
+
+		if (!System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")) {
+			throw new IllegalStateException("CPU placement is only supported on Linux.");
+		}
+
+		String[] parts = placement.split(":", 2);
+		if (parts.length != 2 || parts[1].isBlank()) {
+			throw new IllegalArgumentException("Invalid CPU placement \"" + placement + "\", expected e.g. \"cpus:0-7\", \"numa:0\" or \"l3:0\".");
+		}
+		String value = parts[1].trim();
+
+		List<String> wrapped = new ArrayList<>();
+		switch (parts[0].trim().toLowerCase(Locale.ROOT)) {
+			case "cpus" -> wrapped.addAll(List.of(findTool("taskset"), "-c", value));
+			case "numa" -> {
+				int node = parseNumaNode(value, topology);
+				// Memory is bound as well, otherwise the heap may still be allocated on the remote node
+				wrapped.addAll(List.of(findTool("numactl"), "--cpunodebind=" + node, "--membind=" + node));
+			}
+			case "l3", "ccd" -> wrapped.addAll(List.of(findTool("taskset"), "-c", topology.l3Domains().get(parseIndex(value, topology.l3Domains(), "L3 domain"))));
+			default -> throw new IllegalArgumentException("Unknown CPU placement type in \"" + placement + "\", supported are cpus, numa and l3.");
+		}
+
+		wrapped.addAll(command);
+		return wrapped;
+	}
+
+	/**
+	 * Checks every placement, so a typo or a missing tool is reported before the campaign starts instead of hours into it.
+	 */
+	public static void validate(List<String> placements, CpuTopology topology) {
+		for (String placement : placements) {
+			wrapCommand(placement, topology, List.of());
+		}
+	}
+
+	private static int parseIndex(String value, List<String> available, String name) {
+		try {
+			int index = Integer.parseInt(value);
+			if (index >= 0 && index < available.size()) {
+				return index;
+			}
+		} catch (NumberFormatException ignored) {
+		}
+		throw new IllegalArgumentException(name + " \"" + value + "\" doesn't exist, this host has " + available.size() + ": " + available);
+	}
+
+	private static int parseNumaNode(String value, CpuTopology topology) {
+		try {
+			int node = Integer.parseInt(value);
+			if (topology.numaNodes().containsKey(node)) {
+				return node;
+			}
+		} catch (NumberFormatException ignored) {
+		}
+		throw new IllegalArgumentException("NUMA node \"" + value + "\" doesn't exist, this host has the nodes " + topology.numaNodes().keySet());
+	}
+
+	/**
+	 * Looks up a tool on the PATH, so a missing tool fails with a clear message instead of a failed server start.
+	 */
+	private static String findTool(String tool) {
+		String executable = FileManager.findExecutable(tool);
+		if (executable == null) {
+			throw new IllegalStateException("CPU placement requires " + tool + ", which was not found on the PATH. Please install it with your package manager.");
+		}
+		return executable;
+	}
+}
@@ -0,0 +1,112 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.DatabaseAnalysis;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteOpenMode;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analyzes the Distant Horizons SQLite database after a run.
+ */
+public class DatabaseAnalyzer {
+	private static final String DETAIL_LEVEL_COLUMN = "DetailLevel";
+
+	/**
+	 * Opens the database read-only, so the analysis can never modify the results of the run.
+	 */
+	public static Connection openReadOnly(Path database) throws SQLException {
+		SQLiteConfig config = new SQLiteConfig();
+		config.setReadOnly(true);
+		config.setOpenMode(SQLiteOpenMode.READONLY);
+		return DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath(), config.toProperties());
+	}
+
+	/**
+	 * Collects the page statistics and the row counts and payload bytes of every table, split by detail level where the table has one.
+	 */
+	public static DatabaseAnalysis analyze(Path database) throws SQLException {
+		try (Connection connection = openReadOnly(database); Statement statement = connection.createStatement()) {
+			long pageSize = queryLong(statement, "PRAGMA page_size");
+			long pageCount = queryLong(statement, "PRAGMA page_count");
+			long freelistCount = queryLong(statement, "PRAGMA freelist_count");
+
+			List<String> tables = new ArrayList<>();
+			try (ResultSet rs = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+				while (rs.next()) {
+					tables.add(rs.getString(1));
+				}
+			}
+
+			List<DatabaseAnalysis.TableStats> tableStats = new ArrayList<>();
+			for (String table : tables) {
+				tableStats.addAll(analyzeTable(statement, table));
+			}
+
+			return new DatabaseAnalysis(pageSize, pageCount, freelistCount, tableStats, diskBytesByObject(statement));
+		}
+	}
+
+	private static List<DatabaseAnalysis.TableStats> analyzeTable(Statement statement, String table) throws SQLException {
+		List<String> columns = new ArrayList<>();
+		try (ResultSet rs = statement.executeQuery("PRAGMA table_info(" + quote(table) + ")")) {
+			while (rs.next()) {
+				columns.add(rs.getString("name"));
+			}
+		}
+
+		// Blobs and text are counted with their real size, numbers with the 8 bytes they take at most.
+		List<String> sizes = new ArrayList<>();
+		for (String column : columns) {
+			String c = quote(column);
+			sizes.add("CASE typeof(" + c + ") WHEN 'blob' THEN length(" + c + ") WHEN 'text' THEN length(CAST(" + c + " AS BLOB)) WHEN 'null' THEN 0 ELSE 8 END");
+		}
+		String payload = sizes.isEmpty() ? "0" : "SUM(" + String.join(" + ", sizes) + ")";
+
+		String detailLevelColumn = columns.stream().filter(DETAIL_LEVEL_COLUMN::equalsIgnoreCase).findFirst().orElse(null);
+		String query = detailLevelColumn != null
+				? "SELECT " + quote(detailLevelColumn) + ", COUNT(*), " + payload + " FROM " + quote(table) + " GROUP BY 1 ORDER BY 1"
+				: "SELECT -1, COUNT(*), " + payload + " FROM " + quote(table);
+
+		List<DatabaseAnalysis.TableStats> stats = new ArrayList<>();
+		try (ResultSet rs = statement.executeQuery(query)) {
+			while (rs.next()) {
+				stats.add(new DatabaseAnalysis.TableStats(table, rs.getInt(1), rs.getLong(2), rs.getLong(3)));
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Gets the on-disk size of every table and index from the dbstat virtual table, if SQLite was built with it.
+	 */
+	private static Map<String, Long> diskBytesByObject(Statement statement) {
+		Map<String, Long> bytes = new LinkedHashMap<>();
+		try (ResultSet rs = statement.executeQuery("SELECT name, SUM(pgsize) FROM dbstat GROUP BY name ORDER BY 2 DESC")) {
+			while (rs.next()) {
+				bytes.put(rs.getString(1), rs.getLong(2));
+			}
+		} catch (SQLException ignored) {
+		}
+		return bytes;
+	}
+
+	private static long queryLong(Statement statement, String query) throws SQLException {
+		try (ResultSet rs = statement.executeQuery(query)) {
+			return rs.next() ? rs.getLong(1) : 0;
+		}
+	}
+
+	private static String quote(String identifier) {
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+}
@@ -1,9 +1,26 @@
 package com.skillnoob.dh.benchmark.util;
 
+import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.toml.TomlParser;
 import com.skillnoob.dh.benchmark.Main;
+import com.skillnoob.dh.benchmark.data.BenchmarkCell;
 import com.skillnoob.dh.benchmark.data.BenchmarkConfig;
 import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.CgroupLimits;
+import com.skillnoob.dh.benchmark.data.DatabaseAnalysis;
+import com.skillnoob.dh.benchmark.data.HostFingerprint;
+import com.skillnoob.dh.benchmark.data.PregenTask;
+import com.skillnoob.dh.benchmark.data.PregenTaskResult;
+import com.skillnoob.dh.benchmark.data.ReadBenchmarkResult;
+import com.skillnoob.dh.benchmark.data.RunKey;
+import com.skillnoob.dh.benchmark.data.Scenario;
+import com.skillnoob.dh.benchmark.data.StartupPhase;
+import com.skillnoob.dh.benchmark.data.StartupProfile;
+import com.skillnoob.dh.benchmark.data.ThermalSummary;
+import com.skillnoob.dh.benchmark.data.TickSummary;
+import com.skillnoob.dh.benchmark.data.WorkerInfo;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -13,7 +30,12 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public class FileManager {
@@ -22,6 +44,7 @@ public class FileManager {
 	// Default config values
 	private static final int DEFAULT_RAM_GB = 8;
 	private static final List<String> DEFAULT_SEEDS = List.of("5057296280818819649", "2412466893128258733", "3777092783861568240", "-8505774097130463405", "4753729061374190018");
+	private static final int DEFAULT_REPETITIONS = 1;
 	private static final String DEFAULT_THREAD_PRESET = "I_PAID_FOR_THE_WHOLE_CPU";
 	private static final int DEFAULT_GENERATION_RADIUS = 256;
 	private static final String DEFAULT_FABRIC_DOWNLOAD_URL = "https://meta.fabricmc.net/v2/versions/loader/1.21.1/0.18.4/1.1.1/server/jar";
@@ -29,16 +52,53 @@ public class FileManager {
 	private static final String DEFAULT_EXTRA_JVM_ARGS = "";
 	private static final boolean DEFAULT_DEBUG_MODE = false;
 	private static final double DEFAULT_TIMEOUT_SCALE = 1.0;
+	private static final List<String> DEFAULT_WORLD_STORAGE_PATHS = List.of();
+	private static final String DEFAULT_WORLD_TEMPLATE_DIR = "";
+	private static final List<String> DEFAULT_SCENARIOS = List.of(Scenario.FULL.name());
+	private static final boolean DEFAULT_ANALYZE_DATABASE = true;
+	private static final boolean DEFAULT_READ_BENCHMARK = false;
+	private static final int DEFAULT_READ_BENCHMARK_THREADS = BenchmarkConfig.DEFAULT_READ_BENCHMARK_THREADS;
+	private static final int DEFAULT_READ_BENCHMARK_QUERIES = BenchmarkConfig.DEFAULT_READ_BENCHMARK_QUERIES;
+	private static final List<String> DEFAULT_CPU_PLACEMENTS = List.of();
+	private static final double DEFAULT_THROTTLE_THRESHOLD_PERCENT = 10.0;
+	private static final List<String> DEFAULT_CGROUP_LIMITS = List.of();
+	private static final String DEFAULT_CGROUP_MODE = "AUTO";
+	private static final String DEFAULT_CGROUP_PARENT = "/sys/fs/cgroup/dh-benchmark";
+	private static final List<Integer> DEFAULT_HEAP_SWEEP_GB = List.of();
+	private static final boolean DEFAULT_FIXED_HEAP = false;
+	private static final double DEFAULT_HEAP_KNEE_TOLERANCE_PERCENT = 5.0;
+	private static final boolean DEFAULT_ARCHIVE_LOGS = true;
+	private static final int DEFAULT_WORKER_LEASE_SECONDS = 120;
+	private static final List<String> DEFAULT_PREGEN_TASKS = List.of();
+	private static final int DEFAULT_TICK_QUERY_INTERVAL_SECONDS = BenchmarkConfig.DEFAULT_TICK_QUERY_INTERVAL_SECONDS;
+	private static final int DEFAULT_TICK_BASELINE_SECONDS = BenchmarkConfig.DEFAULT_TICK_BASELINE_SECONDS;
+	private static final List<String> DEFAULT_JAVA_HOMES = List.of();
+	private static final boolean DEFAULT_FAKE_SERVER = false;
+	private static final int DEFAULT_FAKE_SERVER_CPS = 2000;
+	private static final int DEFAULT_FAKE_SERVER_LOG_LINES_PER_SECOND = 1000;
+
+	// Name of the world directory created on alternative storage targets
+	private static final String WORLD_STORAGE_DIR = "dh-benchmark-world";
+	private static final String ALLOWED_SYMLINKS_FILE = "allowed_symlinks.txt";
 
 	/**
 	 * Loads the benchmark configuration from a TOML file using NightConfig.
 	 */
 	public static BenchmarkConfig loadBenchmarkConfig() {
-		try (CommentedFileConfig config = CommentedFileConfig.builder(CONFIG_FILE).preserveInsertionOrder().autosave().build()) {
+		return loadBenchmarkConfig(CONFIG_FILE, Map.of());
+	}
+
+	/**
+	 * Loads the benchmark configuration from the given TOML file, or the default one if it is null.
+	 * The overrides are applied on top of the file without being saved to it.
+	 */
+	public static BenchmarkConfig loadBenchmarkConfig(String configFile, Map<String, String> overrides) {
+		try (CommentedFileConfig config = CommentedFileConfig.builder(configFile != null ? configFile : CONFIG_FILE).preserveInsertionOrder().autosave().build()) {
 			config.load();
 
 			setDefaultIfMissing(config, "ram_gb", DEFAULT_RAM_GB);
 			setDefaultIfMissing(config, "seeds", DEFAULT_SEEDS);
+			setDefaultIfMissing(config, "repetitions", DEFAULT_REPETITIONS);
 			setDefaultIfMissing(config, "thread_preset", DEFAULT_THREAD_PRESET);
 			setDefaultIfMissing(config, "generation_radius", DEFAULT_GENERATION_RADIUS);
 			setDefaultIfMissing(config, "fabric_download_url", DEFAULT_FABRIC_DOWNLOAD_URL);
@@ -46,6 +106,30 @@ public class FileManager {
 			setDefaultIfMissing(config, "extra_jvm_args", DEFAULT_EXTRA_JVM_ARGS);
 			setDefaultIfMissing(config, "debug_mode", DEFAULT_DEBUG_MODE);
 			setDefaultIfMissing(config, "timeout_scale", DEFAULT_TIMEOUT_SCALE);
+			setDefaultIfMissing(config, "world_storage_paths", DEFAULT_WORLD_STORAGE_PATHS);
+			setDefaultIfMissing(config, "world_template_dir", DEFAULT_WORLD_TEMPLATE_DIR);
+			setDefaultIfMissing(config, "scenarios", DEFAULT_SCENARIOS);
+			setDefaultIfMissing(config, "analyze_database", DEFAULT_ANALYZE_DATABASE);
+			setDefaultIfMissing(config, "read_benchmark", DEFAULT_READ_BENCHMARK);
+			setDefaultIfMissing(config, "read_benchmark_threads", DEFAULT_READ_BENCHMARK_THREADS);
+			setDefaultIfMissing(config, "read_benchmark_queries", DEFAULT_READ_BENCHMARK_QUERIES);
+			setDefaultIfMissing(config, "cpu_placements", DEFAULT_CPU_PLACEMENTS);
+			setDefaultIfMissing(config, "throttle_threshold_percent", DEFAULT_THROTTLE_THRESHOLD_PERCENT);
+			setDefaultIfMissing(config, "cgroup_limits", DEFAULT_CGROUP_LIMITS);
+			setDefaultIfMissing(config, "cgroup_mode", DEFAULT_CGROUP_MODE);
+			setDefaultIfMissing(config, "cgroup_parent", DEFAULT_CGROUP_PARENT);
+			setDefaultIfMissing(config, "heap_sweep_gb", DEFAULT_HEAP_SWEEP_GB);
+			setDefaultIfMissing(config, "fixed_heap", DEFAULT_FIXED_HEAP);
+			setDefaultIfMissing(config, "heap_knee_tolerance_percent", DEFAULT_HEAP_KNEE_TOLERANCE_PERCENT);
+			setDefaultIfMissing(config, "archive_logs", DEFAULT_ARCHIVE_LOGS);
+			setDefaultIfMissing(config, "worker_lease_seconds", DEFAULT_WORKER_LEASE_SECONDS);
+			setDefaultIfMissing(config, "pregen_tasks", DEFAULT_PREGEN_TASKS);
+			setDefaultIfMissing(config, "tick_query_interval_seconds", DEFAULT_TICK_QUERY_INTERVAL_SECONDS);
+			setDefaultIfMissing(config, "tick_baseline_seconds", DEFAULT_TICK_BASELINE_SECONDS);
+			setDefaultIfMissing(config, "java_homes", DEFAULT_JAVA_HOMES);
+			setDefaultIfMissing(config, "fake_server", DEFAULT_FAKE_SERVER);
+			setDefaultIfMissing(config, "fake_server_cps", DEFAULT_FAKE_SERVER_CPS);
+			setDefaultIfMissing(config, "fake_server_log_lines_per_second", DEFAULT_FAKE_SERVER_LOG_LINES_PER_SECOND);
 
 			config.setComment("ram_gb",
 					String.format("""
@@ -60,6 +144,14 @@ public class FileManager {
 							""", DEFAULT_SEEDS
 					)
 			);
+			config.setComment("repetitions",
+					String.format("""
+							How many times each seed is benchmarked.
+							Every repetition is reported as its own run.
+							Default: %s
+							""", DEFAULT_REPETITIONS
+					)
+			);
 			config.setComment("thread_preset",
 					String.format("""
 							This controls the Distant Horizons thread preset used when generating chunks.
@@ -113,19 +205,312 @@ public class FileManager {
 							""", DEFAULT_TIMEOUT_SCALE
 					)
 			);
+			config.setComment("world_storage_paths",
+					String.format("""
+							Directories on the storage devices the world and the Distant Horizons database are placed on, e.g. "/dev/shm" or "/mnt/nvme".
+							The world directory of the server is linked to a "%s" directory inside each of them.
+							When more than one path is given, all seeds are run on every storage target and a storage sensitivity report is printed.
+							Leave empty to keep the world next to the server.
+							Default: %s
+							""", WORLD_STORAGE_DIR, DEFAULT_WORLD_STORAGE_PATHS
+					)
+			);
+			config.setComment("world_template_dir",
+					String.format("""
+							Directory holding one template world per seed, named after the seed, that every run starts from instead of an empty world.
+							Missing templates are captured from the world the server creates on its first start with that seed.
+							To start from a pre-generated vanilla region, place a world generated with the same seed in the seed's directory.
+							Templates are restored with copy-on-write reflinks where the filesystem supports it (e.g. btrfs, XFS), otherwise they are copied.
+							Leave empty to start every run from a new world.
+							Default: %s
+							""", DEFAULT_WORLD_TEMPLATE_DIR
+					)
+			);
+			config.setComment("scenarios",
+					String.format("""
+							The benchmark scenarios to run, every seed is run once per scenario.
+							FULL: Generates the chunks with vanilla world generation and builds the LODs from them.
+							LOD_ONLY: Only builds the LODs from chunks that already exist, which separates DH processing and database writes from vanilla world generation.
+							LOD_ONLY requires world_template_dir with a template for every seed that is pre-generated for the whole area of the pregen, e.g. with Chunky.
+							The templates the benchmark captures by itself only contain the spawn area, so they are refused for LOD_ONLY.
+							When both are run, the share of the generation time spent in each stage is reported.
+							Default: %s
+							""", DEFAULT_SCENARIOS
+					)
+			);
+			config.setComment("analyze_database",
+					String.format("""
+							Analyzes the Distant Horizons database after every run and reports the rows and bytes per table and detail level,
+							the page and freelist usage, the bytes per chunk and the write amplification.
+							The analysis is also saved to benchmark-db-analysis.csv. It runs after the server stopped, so it doesn't affect the results.
+							Default: %s
+							""", DEFAULT_ANALYZE_DATABASE
+					)
+			);
+			config.setComment("read_benchmark",
+					String.format("""
+							Benchmarks reading the LODs back from the generated database after every run, which is what players feel when they connect.
+							Runs random lookups and spatially coherent lookups around random positions, and reports the queries per second and the p50/p99 latency.
+							Default: %s
+							""", DEFAULT_READ_BENCHMARK
+					)
+			);
+			config.setComment("read_benchmark_threads",
+					String.format("""
+							The number of concurrent readers used by the read benchmark.
+							Default: %s
+							""", DEFAULT_READ_BENCHMARK_THREADS
+					)
+			);
+			config.setComment("read_benchmark_queries",
+					String.format("""
+							The number of lookups per access pattern in the read benchmark, split across all readers.
+							Default: %s
+							""", DEFAULT_READ_BENCHMARK_QUERIES
+					)
+			);
+			config.setComment("cpu_placements",
+					String.format("""
+							The CPUs the server is pinned to, Linux only. Every placement is run with all seeds, so multiple placements can be compared.
+							"cpus:0-7,16-23": Pins the server to a CPU list using taskset.
+							"numa:0": Pins the server and its memory to a NUMA node using numactl.
+							"l3:0": Pins the server to the CPUs sharing an L3 cache, e.g. a single CCD, using taskset.
+							"": Leaves the placement to the scheduler.
+							Default: %s
+							""", DEFAULT_CPU_PLACEMENTS
+					)
+			);
+			config.setComment("throttle_threshold_percent",
+					String.format("""
+							A run is flagged as throttled when the average CPU frequency during the pregen drops by more than this many percent
+							below the frequency at its start. Throttled results reflect the cooling rather than the CPU.
+							The CPU frequency, temperature and energy use are only sampled on Linux.
+							Default: %s
+							""", DEFAULT_THROTTLE_THRESHOLD_PERCENT
+					)
+			);
+			config.setComment("cgroup_limits",
+					String.format("""
+							Resource limits the server is started with using cgroup v2, to model smaller hosts, Linux only.
+							Every entry is run with all seeds and a curve of Cps against the allotted resources is reported.
+							Format: "cpu=4;memory=16G;io=/dev/nvme0n1 wbps=104857600", every part is optional.
+							cpu: Cores as cpu.max quota, may be fractional. memory: memory.max, swap is disabled. io: A device followed by io.max limits (rbps, wbps, riops, wiops).
+							Note that memory must be larger than ram_gb plus the JVM overhead, otherwise the server is killed.
+							"": Runs without limits.
+							Default: %s
+							""", DEFAULT_CGROUP_LIMITS
+					)
+			);
+			config.setComment("cgroup_mode",
+					String.format("""
+							How the cgroup is created.
+							SYSTEMD: Uses a transient "systemd-run --user --scope" unit, the user manager needs the cpu, memory and io controllers delegated.
+							CGROUPFS: Creates a child of cgroup_parent and writes the limits directly, the parent must be a delegated cgroup without processes of its own, the needed controllers are enabled in it.
+							AUTO: Uses SYSTEMD if systemd-run is installed, otherwise CGROUPFS.
+							Default: %s
+							""", DEFAULT_CGROUP_MODE
+					)
+			);
+			config.setComment("cgroup_parent",
+					String.format("""
+							The delegated cgroup v2 directory used in CGROUPFS mode.
+							Default: %s
+							""", DEFAULT_CGROUP_PARENT
+					)
+			);
+			config.setComment("heap_sweep_gb",
+					String.format("""
+							Heap sizes in GB to sweep, e.g. [2, 4, 8, 16, 32]. Every size is run with all seeds instead of ram_gb,
+							and the smallest heap within heap_knee_tolerance_percent of the best Cps is recommended as ram_gb.
+							Leave empty to only use ram_gb.
+							Default: %s
+							""", DEFAULT_HEAP_SWEEP_GB
+					)
+			);
+			config.setComment("fixed_heap",
+					String.format("""
+							Sets the initial heap size (-Xms) to the maximum heap size (-Xmx), so the heap doesn't grow during the run.
+							Default: %s
+							""", DEFAULT_FIXED_HEAP
+					)
+			);
+			config.setComment("heap_knee_tolerance_percent",
+					String.format("""
+							How far below the best Cps of the heap sweep a heap size may be to still be recommended.
+							Default: %s
+							""", DEFAULT_HEAP_KNEE_TOLERANCE_PERCENT
+					)
+			);
+			config.setComment("archive_logs",
+					String.format("""
+							Whether to archive the raw server output of every run as a compressed file in benchmark-logs.
+							Archived runs can be re-evaluated later with --replay benchmark-logs.
+							Default: %s
+							""", DEFAULT_ARCHIVE_LOGS
+					)
+			);
+			config.setComment("worker_lease_seconds",
+					String.format("""
+							Only used by --coordinator. How long a worker may go without a heartbeat before its run is handed out to another worker.
+							Workers send a heartbeat every quarter of this time.
+							Default: %s
+							""", DEFAULT_WORKER_LEASE_SECONDS
+					)
+			);
+			config.setComment("pregen_tasks",
+					String.format("""
+							Pregen tasks every run generates, each given as "<dimension> <x> <z> <radius>" with the center in block coordinates and the radius in chunks.
+							Example: ["minecraft:overworld 0 0 128", "minecraft:overworld 20000 -20000 128", "minecraft:the_nether 0 0 64"]
+							Distant Horizons runs one pregen at a time, so the tasks are started one after another on the same server,
+							each right after the previous one completes. The Cps of every task and of all tasks together are reported.
+							Tasks shouldn't overlap, as chunks that already exist aren't generated again.
+							Leave empty to generate a single area of generation_radius around the overworld's origin.
+							Default: %s
+							""", DEFAULT_PREGEN_TASKS
+					)
+			);
+			config.setComment("tick_query_interval_seconds",
+					String.format("""
+							How often to run "tick query" on the server to measure how much the pregen slows down the game loop (MSPT and tick time percentiles).
+							The server reports its last 100 ticks, so intervals of 5 seconds or more don't overlap at the default tick rate.
+							Set to 0 to disable tick measurements.
+							Default: %s
+							""", DEFAULT_TICK_QUERY_INTERVAL_SECONDS
+					)
+			);
+			config.setComment("tick_baseline_seconds",
+					String.format("""
+							How long to measure the tick times of the idle server before the pregen starts, as the baseline the pregen is compared against.
+							Default: %s
+							""", DEFAULT_TICK_BASELINE_SECONDS
+					)
+			);
+			config.setComment("java_homes",
+					String.format("""
+							Java installations (JDK or JRE homes) to run the server with, e.g. ["/usr/lib/jvm/java-21-openjdk", "/opt/graalvm-jdk-23"].
+							"%s" adds every Java %d+ runtime found in /usr/lib/jvm, /usr/java, SDKMAN!, ~/.jdks, /Library/Java/JavaVirtualMachines and JAVA_HOME.
+							It is resolved on the host that runs the benchmark and can't be used with a coordinator, as the workers may have other runtimes.
+							When more than one runtime is given, all seeds are run on every runtime and a throughput and GC comparison is printed.
+							Leave empty to use the java on the PATH.
+							Default: %s
+							""", JavaRuntimes.AUTO, JavaRuntimes.MIN_FEATURE_VERSION, DEFAULT_JAVA_HOMES
+					)
+			);
+			config.setComment("fake_server",
+					String.format("""
+							Runs a bundled fake server instead of Minecraft with Distant Horizons, which nothing is downloaded for.
+							It answers the benchmark's commands with realistic log output and generates chunks into a SQLite database at a fixed rate,
+							to test the benchmark itself and measure its overhead and timing accuracy. Its results say nothing about Distant Horizons.
+							Default: %s
+							""", DEFAULT_FAKE_SERVER
+					)
+			);
+			config.setComment("fake_server_cps",
+					String.format("""
+							Only used with fake_server. How many chunks per second the fake server generates.
+							Default: %s
+							""", DEFAULT_FAKE_SERVER_CPS
+					)
+			);
+			config.setComment("fake_server_log_lines_per_second",
+					String.format("""
+							Only used with fake_server. How many unrelated log lines per second the fake server prints during a pregen, to load the log pipeline.
+							Default: %s
+							""", DEFAULT_FAKE_SERVER_LOG_LINES_PER_SECOND
+					)
+			);
 
-			int ramGb = config.getInt("ram_gb");
-			List<String> seeds = config.get("seeds");
-			String threadPreset = config.get("thread_preset");
-			int generationRadius = config.getInt("generation_radius");
-			String fabricDownloadUrl = config.get("fabric_download_url");
-			String dhDownloadUrl = config.get("dh_download_url");
-			String extraJvmArgs = config.get("extra_jvm_args");
-			boolean debugMode = config.get("debug_mode");
-			double timeoutScale = config.get("timeout_scale");
+			// Overrides go to a copy, so they don't end up in the file
+			Config values = applyOverrides(config, overrides);
 
-			return new BenchmarkConfig(ramGb, seeds, threadPreset, generationRadius, fabricDownloadUrl, dhDownloadUrl, extraJvmArgs, debugMode, timeoutScale);
+			int ramGb = values.getInt("ram_gb");
+			List<String> seeds = values.get("seeds");
+			int repetitions = Math.max(1, values.getInt("repetitions"));
+			String threadPreset = values.get("thread_preset");
+			int generationRadius = values.getInt("generation_radius");
+			String fabricDownloadUrl = values.get("fabric_download_url");
+			String dhDownloadUrl = values.get("dh_download_url");
+			String extraJvmArgs = values.get("extra_jvm_args");
+			boolean debugMode = values.get("debug_mode");
+			double timeoutScale = values.get("timeout_scale");
+			List<String> worldStoragePaths = values.get("world_storage_paths");
+			String worldTemplateDir = values.get("world_template_dir");
+			List<String> scenarioNames = values.get("scenarios");
+			List<Scenario> scenarios = scenarioNames.stream().map(name -> Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT))).toList();
+			boolean analyzeDatabase = values.get("analyze_database");
+			boolean readBenchmark = values.get("read_benchmark");
+			int readBenchmarkThreads = Math.max(1, values.getInt("read_benchmark_threads"));
+			int readBenchmarkQueries = Math.max(1, values.getInt("read_benchmark_queries"));
+			List<String> cpuPlacements = values.get("cpu_placements");
+			double throttleThresholdPercent = ((Number) values.get("throttle_threshold_percent")).doubleValue();
+			List<String> cgroupLimits = values.get("cgroup_limits");
+			String cgroupMode = values.get("cgroup_mode");
+			String cgroupParent = values.get("cgroup_parent");
+			// TOML integers may be read as Long, so convert them explicitly
+			List<Integer> heapSweepGb = values.<List<Number>>get("heap_sweep_gb").stream().map(Number::intValue).toList();
+			boolean fixedHeap = values.get("fixed_heap");
+			double heapKneeTolerancePercent = ((Number) values.get("heap_knee_tolerance_percent")).doubleValue();
+			boolean archiveLogs = values.get("archive_logs");
+			int workerLeaseSeconds = Math.max(10, values.getInt("worker_lease_seconds"));
+			List<String> pregenTasks = values.get("pregen_tasks");
+			// Fail on an invalid task now instead of in the middle of the campaign
+			pregenTasks.forEach(PregenTask::parse);
+			int tickQueryIntervalSeconds = Math.max(0, values.getInt("tick_query_interval_seconds"));
+			int tickBaselineSeconds = Math.max(0, values.getInt("tick_baseline_seconds"));
+			List<String> javaHomes = values.get("java_homes");
+			boolean fakeServer = values.get("fake_server");
+			int fakeServerCps = Math.max(1, values.getInt("fake_server_cps"));
+			int fakeServerLogLinesPerSecond = Math.max(0, values.getInt("fake_server_log_lines_per_second"));
+
+			return new BenchmarkConfig(ramGb, seeds, repetitions, threadPreset, generationRadius, fabricDownloadUrl, dhDownloadUrl, extraJvmArgs, debugMode, timeoutScale,
+					worldStoragePaths, worldTemplateDir, scenarios, analyzeDatabase, readBenchmark, readBenchmarkThreads, readBenchmarkQueries,
+					cpuPlacements, throttleThresholdPercent, cgroupLimits, cgroupMode, cgroupParent,
+					heapSweepGb, fixedHeap, heapKneeTolerancePercent, archiveLogs, workerLeaseSeconds, pregenTasks,
+					tickQueryIntervalSeconds, tickBaselineSeconds, javaHomes, fakeServer, fakeServerCps, fakeServerLogLinesPerSecond);
+		}
+	}
+
+	/**
+	 * Copies the config and replaces the given keys. Values are parsed as TOML, anything that isn't valid TOML is used as a string.
+	 */
+	private static Config applyOverrides(Config config, Map<String, String> overrides) {
+		if (overrides.isEmpty()) {
+			return config;
+		}
+
+		Config values = Config.copy(config);
+		for (Map.Entry<String, String> override : overrides.entrySet()) {
+			String key = override.getKey();
+			if (!config.contains(key)) {
+				throw new IllegalArgumentException("Unknown config key \"" + key + "\".");
+			}
+
+			Object value;
+			try {
+				value = new TomlParser().parse("value = " + override.getValue()).get("value");
+			} catch (ParsingException e) {
+				value = override.getValue();
+			}
+
+			Object current = config.get(key);
+			if (!sameType(current, value)) {
+				throw new IllegalArgumentException("Invalid value \"" + override.getValue() + "\" for " + key + ", expected a value like " + current + ".");
+			}
+			// Keep the number type of the file, e.g. "--set timeout_scale=2" must still be read as a double
+			if (current instanceof Double && value instanceof Number number) {
+				value = number.doubleValue();
+			} else if (current instanceof Integer && value instanceof Number number) {
+				value = number.intValue();
+			}
+			values.set(key, value);
 		}
+		return values;
+	}
+
+	private static boolean sameType(Object current, Object value) {
+		return current instanceof Number ? value instanceof Number
+				: current instanceof List ? value instanceof List
+				: current.getClass().isInstance(value);
 	}
 
 	/**
@@ -140,8 +525,8 @@ public class FileManager {
 	/**
 	 * Writes benchmark results to a CSV file.
 	 */
-	public static void writeResultsToCSV(String filePath, List<BenchmarkResult> results, String avgTime, long avgCps, long avgDbSizeInMB, int ramGB) throws IOException {
-		try (PrintWriter writer = new PrintWriter(filePath)) {
+	public static void writeResultsToCSV(String filePath, List<BenchmarkResult> results, String avgTime, long avgCps, long avgDbSizeInMB, int ramGB, boolean append) throws IOException {
+		try (PrintWriter writer = new PrintWriter(new FileWriter(filePath, append))) {
 			StringBuilder data = new StringBuilder();
 
 			data.append(ramGB).append("GB,");
@@ -163,6 +548,344 @@ public class FileManager {
 		}
 	}
 
+	/**
+	 * Writes one row per run, including the campaign cell it belongs to, to a CSV file.
+	 */
+	public static void writeRunsToCSV(String filePath, Map<RunKey, BenchmarkResult> results, Map<String, BenchmarkCell> cells) throws IOException {
+		try (PrintWriter writer = new PrintWriter(filePath)) {
+			writer.println("cell,config_hash,seed,repetition,elapsed_seconds,cps,db_size_bytes,db_write_bytes_per_second,disk_write_bytes,wal_size_bytes,write_amplification,"
+					+ "read_random_qps,read_random_p50_us,read_random_p99_us,read_spatial_qps,read_spatial_p50_us,read_spatial_p99_us,"
+					+ "start_frequency_mhz,average_frequency_mhz,max_temperature_c,energy_joules,cps_per_watt,throttled,"
+					+ "heap_gb,gc_pause_count,gc_pause_ms,gc_pause_share_percent,peak_rss_bytes,"
+					+ "idle_mspt,pregen_mspt,mspt_increase_ms,pregen_tick_p50_ms,pregen_tick_p95_ms,pregen_tick_p99_ms,pregen_tick_max_p99_ms,"
+					+ "java_home,java_version,java_runtime," + startupColumns("startup_") + ","
+					+ "host_id,host_cpu,host_sockets,host_cores,host_threads,host_caches,host_numa_nodes,host_memory_gb,"
+					+ "host_governor,host_kernel,host_jvm,world_storage,world_storage_rotational");
+
+			for (Map.Entry<RunKey, BenchmarkResult> entry : results.entrySet()) {
+				RunKey key = entry.getKey();
+				BenchmarkResult result = entry.getValue();
+				writer.println(String.join(",",
+						"\"" + cells.get(key.configHash()).label() + "\"",
+						key.configHash(),
+						key.seed(),
+						String.valueOf(key.repetition() + 1),
+						String.format(Locale.ROOT, "%.3f", result.elapsedTime() / 1_000_000_000.0),
+						String.valueOf(result.averageCps()),
+						String.valueOf(result.dbSize()),
+						String.valueOf(Math.round(result.dbWriteThroughput())),
+						String.valueOf(result.diskWriteBytes()),
+						String.valueOf(result.walSize()),
+						String.format(Locale.ROOT, "%.3f", result.writeAmplification()),
+						formatReadBenchmark(result.readBenchmark(LodReadBenchmark.AccessPattern.RANDOM.name())),
+						formatReadBenchmark(result.readBenchmark(LodReadBenchmark.AccessPattern.SPATIAL.name())),
+						formatThermal(result),
+						String.valueOf(cells.get(key.configHash()).ramGb()),
+						result.gc() != null ? String.valueOf(result.gc().pauseCount()) : "",
+						result.gc() != null ? String.format(Locale.ROOT, "%.1f", result.gc().totalPauseMillis()) : "",
+						result.gc() != null ? String.format(Locale.ROOT, "%.3f", result.gc().pauseTimeSharePercent()) : "",
+						String.valueOf(result.peakRssBytes()),
+						result.idleTicks() != null ? String.format(Locale.ROOT, "%.2f", result.idleTicks().averageMspt()) : "",
+						formatTicks(result),
+						"\"" + cells.get(key.configHash()).jdkLabel() + "\"",
+						result.javaRuntime() != null ? result.javaRuntime().version() : "",
+						result.javaRuntime() != null ? "\"" + result.javaRuntime().runtime() + "\"" : "",
+						formatStartup(result.startup()),
+						formatHost(result.host()),
+						result.storage() != null ? "\"" + result.storage().model() + "\"" : "",
+						result.storage() != null && result.storage().rotational() != null ? String.valueOf(result.storage().rotational()) : ""
+				));
+			}
+		}
+	}
+
+	private static String formatReadBenchmark(Optional<ReadBenchmarkResult> read) {
+		return read.map(r -> String.format(Locale.ROOT, "%.0f,%.1f,%.1f", r.queriesPerSecond(), r.p50Nanos() / 1000.0, r.p99Nanos() / 1000.0)).orElse(",,");
+	}
+
+	private static String formatTicks(BenchmarkResult result) {
+		TickSummary ticks = result.pregenTicks();
+		if (ticks == null) {
+			return ",,,,,";
+		}
+		return String.format(Locale.ROOT, "%.2f,%s,%.2f,%.2f,%.2f,%.2f", ticks.averageMspt(),
+				result.msptIncrease().isPresent() ? String.format(Locale.ROOT, "%.2f", result.msptIncrease().getAsDouble()) : "",
+				ticks.p50Ms(), ticks.p95Ms(), ticks.p99Ms(), ticks.maxP99Ms());
+	}
+
+	private static String startupColumns(String prefix) {
+		List<String> columns = new ArrayList<>();
+		columns.add(prefix + "seconds");
+		for (StartupPhase phase : StartupPhase.values()) {
+			columns.add(prefix + phase.name().toLowerCase(Locale.ROOT) + "_seconds");
+		}
+		return String.join(",", columns);
+	}
+
+	private static String formatStartup(StartupProfile startup) {
+		List<String> values = new ArrayList<>();
+		values.add(startup != null ? String.format(Locale.ROOT, "%.3f", startup.totalNanos() / 1_000_000_000.0) : "");
+		for (StartupPhase phase : StartupPhase.values()) {
+			long nanos = startup != null ? startup.duration(phase) : -1;
+			values.add(nanos >= 0 ? String.format(Locale.ROOT, "%.3f", nanos / 1_000_000_000.0) : "");
+		}
+		return String.join(",", values);
+	}
+
+	private static String formatHost(HostFingerprint host) {
+		if (host == null) {
+			return ",,,,,,,,,,";
+		}
+		return String.join(",",
+				host.hostId(),
+				"\"" + host.cpuModel() + "\"",
+				String.valueOf(host.sockets()),
+				String.valueOf(host.physicalCores()),
+				String.valueOf(host.logicalCpus()),
+				"\"" + host.caches() + "\"",
+				String.valueOf(host.numaNodes()),
+				String.valueOf(host.memoryGb()),
+				host.governor(),
+				host.kernel(),
+				"\"" + host.jvm() + "\""
+		);
+	}
+
+	private static String formatThermal(BenchmarkResult result) {
+		ThermalSummary thermal = result.thermal();
+		if (thermal == null) {
+			return ",,,,,";
+		}
+		return String.format(Locale.ROOT, "%.0f,%.0f,%.1f,%.1f,%.2f,%s", thermal.startFrequencyMhz(), thermal.averageFrequencyMhz(), thermal.maxTemperatureC(),
+				thermal.energyJoules(), result.cpsPerWatt(), thermal.throttled());
+	}
+
+	/**
+	 * Writes the average Cps for every set of cgroup limits to a CSV file.
+	 */
+	public static void writeResourceCurveToCSV(String filePath, Map<String, List<BenchmarkResult>> resultsByLimits) throws IOException {
+		try (PrintWriter writer = new PrintWriter(filePath)) {
+			writer.println("limits,cpus,memory_bytes,io,average_cps,cps_per_core");
+
+			resultsByLimits.forEach((spec, results) -> {
+				CgroupLimits limits = CgroupLimits.parse(spec);
+				double cps = results.stream().mapToLong(BenchmarkResult::averageCps).average().orElse(0);
+				writer.println(String.join(",",
+						"\"" + spec + "\"",
+						String.valueOf(limits.cpus()),
+						String.valueOf(limits.memoryBytes()),
+						"\"" + limits.io() + "\"",
+						String.valueOf(Math.round(cps)),
+						limits.cpus() > 0 ? String.format(Locale.ROOT, "%.1f", cps / limits.cpus()) : ""
+				));
+			});
+		}
+	}
+
+	/**
+	 * Writes the timing of every pregen task of every run to a CSV file.
+	 */
+	public static void writePregenTasksToCSV(String filePath, Map<RunKey, BenchmarkResult> results, Map<String, BenchmarkCell> cells) throws IOException {
+		try (PrintWriter writer = new PrintWriter(filePath)) {
+			writer.println("cell,config_hash,seed,repetition,task,dimension,center_x,center_z,radius,chunks,elapsed_seconds,cps");
+
+			for (Map.Entry<RunKey, BenchmarkResult> entry : results.entrySet()) {
+				RunKey key = entry.getKey();
+				List<PregenTaskResult> tasks = entry.getValue().pregenTasks();
+				if (tasks == null) {
+					continue;
+				}
+
+				for (int i = 0; i < tasks.size(); i++) {
+					PregenTaskResult task = tasks.get(i);
+					PregenTask spec = PregenTask.parse(task.task());
+					writer.println(String.join(",",
+							"\"" + cells.get(key.configHash()).label() + "\"",
+							key.configHash(),
+							key.seed(),
+							String.valueOf(key.repetition() + 1),
+							String.valueOf(i + 1),
+							spec.dimension(),
+							String.valueOf(spec.centerX()),
+							String.valueOf(spec.centerZ()),
+							String.valueOf(spec.radius()),
+							String.valueOf(task.chunks()),
+							String.format(Locale.ROOT, "%.3f", task.elapsedTime() / 1_000_000_000.0),
+							String.format(Locale.ROOT, "%.1f", task.averageCps())
+					));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the per-table analysis of a run's database to a CSV file, writing the header first if the file is new.
+	 */
+	public static void appendDatabaseAnalysisToCSV(String filePath, RunKey key, DatabaseAnalysis analysis) throws IOException {
+		boolean newFile = !Files.exists(Paths.get(filePath));
+
+		try (PrintWriter writer = new PrintWriter(new FileWriter(filePath, true))) {
+			if (newFile) {
+				writer.println("config_hash,seed,repetition,table,detail_level,rows,payload_bytes,table_disk_bytes,page_size,page_count,freelist_count");
+			}
+
+			for (DatabaseAnalysis.TableStats table : analysis.tables()) {
+				// The on-disk size is only known for the whole table, so it is repeated on every detail level row
+				long tableDiskBytes = analysis.diskBytesByObject().getOrDefault(table.table(), -1L);
+				writer.println(String.join(",",
+						key.configHash(),
+						key.seed(),
+						String.valueOf(key.repetition() + 1),
+						table.table(),
+						String.valueOf(table.detailLevel()),
+						String.valueOf(table.rows()),
+						String.valueOf(table.payloadBytes()),
+						String.valueOf(tableDiskBytes),
+						String.valueOf(analysis.pageSize()),
+						String.valueOf(analysis.pageCount()),
+						String.valueOf(analysis.freelistCount())
+				));
+			}
+		}
+	}
+
+	/**
+	 * Appends the phases of a server start to the startup history, writing the header first if the file is new.
+	 * The cell settings are the ones that change the startup time, see {@link BenchmarkCell#startupLabel()}.
+	 * The setup describes what was loaded and is the last column, so it may contain commas.
+	 */
+	public static void appendStartupHistoryToCSV(String filePath, RunKey key, String cellSettings, String setup, StartupProfile startup) throws IOException {
+		Path file = Paths.get(filePath);
+		String header = "started_at_millis,config_hash,seed,repetition," + startupColumns("") + ",cell,setup";
+		boolean newFile = !Files.exists(file);
+		if (!newFile) {
+			migrateStartupHistory(file, header);
+		}
+
+		try (PrintWriter writer = new PrintWriter(new FileWriter(filePath, true))) {
+			if (newFile) {
+				writer.println(header);
+			}
+			writer.println(String.join(",",
+					String.valueOf(System.currentTimeMillis()),
+					key.configHash(),
+					key.seed(),
+					String.valueOf(key.repetition() + 1),
+					formatStartup(startup),
+					cellSettings,
+					"\"" + setup.replace("\"", "'") + "\""
+			));
+		}
+	}
+
+	/**
+	 * Rewrites the startup history under the given header if it was written with other columns, e.g. before a phase was added.
+	 * Values are moved to their column by name and columns the old rows don't have stay empty.
+	 */
+	private static void migrateStartupHistory(Path file, String header) throws IOException {
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		if (lines.isEmpty() || lines.getFirst().equals(header)) {
+			return;
+		}
+
+		List<String> oldColumns = List.of(lines.getFirst().split(","));
+		String[] columns = header.split(",");
+		List<String> migrated = new ArrayList<>(List.of(header));
+		for (String line : lines.subList(1, lines.size())) {
+			// The setup is the last column in every version, so splitting with a limit keeps its commas
+			String[] values = line.split(",", oldColumns.size());
+			if (values.length < oldColumns.size()) {
+				continue;
+			}
+			String[] row = new String[columns.length];
+			for (int i = 0; i < columns.length; i++) {
+				int column = oldColumns.indexOf(columns[i]);
+				row[i] = column >= 0 ? values[column] : "";
+			}
+			migrated.add(String.join(",", row));
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temp, migrated, StandardCharsets.UTF_8);
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Reads the startup history, grouped by the cell settings and then by setup, in the order they first appeared. Empty if there is no history yet.
+	 * Starts recorded before the cell settings were part of the history are grouped under empty settings.
+	 */
+	public static Map<String, Map<String, List<StartupProfile>>> readStartupHistory(String filePath) throws IOException {
+		Map<String, Map<String, List<StartupProfile>>> history = new LinkedHashMap<>();
+		Path file = Paths.get(filePath);
+		if (!Files.exists(file)) {
+			return history;
+		}
+
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		if (lines.isEmpty()) {
+			return history;
+		}
+		// Columns are looked up by name, appending a start rewrites a history with other columns under the current header
+		List<String> columns = List.of(lines.getFirst().split(","));
+		int totalColumn = columns.indexOf("seconds");
+		int cellColumn = columns.indexOf("cell");
+		for (String line : lines.subList(1, lines.size())) {
+			String[] values = line.split(",", columns.size());
+			if (values.length < columns.size() || totalColumn < 0 || values[totalColumn].isEmpty()) {
+				continue;
+			}
+
+			try {
+				Map<StartupPhase, Long> phases = new EnumMap<>(StartupPhase.class);
+				for (StartupPhase phase : StartupPhase.values()) {
+					int column = columns.indexOf(phase.name().toLowerCase(Locale.ROOT) + "_seconds");
+					if (column >= 0 && !values[column].isEmpty()) {
+						phases.put(phase, parseNanos(values[column]));
+					}
+				}
+				String cellSettings = cellColumn >= 0 ? values[cellColumn] : "";
+				String setup = values[values.length - 1].replace("\"", "");
+				history.computeIfAbsent(cellSettings, s -> new LinkedHashMap<>()).computeIfAbsent(setup, s -> new ArrayList<>())
+						.add(new StartupProfile(phases, parseNanos(values[totalColumn])));
+			} catch (NumberFormatException ignored) {
+				// A row torn by a crash of the benchmark
+			}
+		}
+		return history;
+	}
+
+	private static long parseNanos(String seconds) {
+		return Math.round(Double.parseDouble(seconds) * 1_000_000_000.0);
+	}
+
+	/**
+	 * Writes which worker completed every run of a distributed campaign, including its hardware, to a CSV file.
+	 */
+	public static void writeWorkersToCSV(String filePath, Map<RunKey, WorkerInfo> workers, Map<String, BenchmarkCell> cells) throws IOException {
+		try (PrintWriter writer = new PrintWriter(filePath)) {
+			writer.println("cell,config_hash,seed,repetition,worker,hostname,os,logical_cpus,cpu,ram,drive,host_id");
+			for (Map.Entry<RunKey, WorkerInfo> entry : workers.entrySet()) {
+				RunKey key = entry.getKey();
+				WorkerInfo worker = entry.getValue();
+				List<String> hardware = worker.hardware() != null ? worker.hardware() : List.of();
+				writer.println(String.join(",",
+						"\"" + cells.get(key.configHash()).label() + "\"",
+						key.configHash(),
+						key.seed(),
+						String.valueOf(key.repetition() + 1),
+						worker.workerId(),
+						worker.hostname(),
+						"\"" + worker.os() + "\"",
+						String.valueOf(worker.logicalCpus()),
+						"\"" + (hardware.size() > 0 ? hardware.get(0) : "") + "\"",
+						"\"" + (hardware.size() > 1 ? hardware.get(1) : "") + "\"",
+						"\"" + (hardware.size() > 2 ? hardware.get(2) : "") + "\"",
+						worker.hostId() != null ? worker.hostId() : ""
+				));
+			}
+		}
+	}
+
 	/**
 	 * Updates the benchmark results csv with the hardware information.
 	 */
@@ -176,13 +899,31 @@ public class FileManager {
 		List<String> existingLines = Files.readAllLines(csvPath, StandardCharsets.UTF_8);
 		List<String> newLines = new ArrayList<>();
 
-		String newDataRow = hardwareInfo.get(0) + "," + hardwareInfo.get(1) + "," + hardwareInfo.get(2) + "," + existingLines.getFirst();
-		newLines.add(newDataRow);
+		// Every campaign cell has its own row
+		for (String line : existingLines) {
+			newLines.add(hardwareInfo.get(0) + "," + hardwareInfo.get(1) + "," + hardwareInfo.get(2) + "," + line);
+		}
 
 		Files.write(csvPath, newLines, StandardCharsets.UTF_8);
 		System.out.println("Hardware information added to results file");
 	}
 
+	/**
+	 * Looks up an executable on the PATH, returns null if it is not installed.
+	 */
+	public static String findExecutable(String name) {
+		String path = System.getenv("PATH");
+		if (path != null) {
+			for (String dir : path.split(File.pathSeparator)) {
+				Path candidate = Paths.get(dir, name);
+				if (Files.isExecutable(candidate)) {
+					return candidate.toString();
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Ensures that a directory exists; if not, creates it.
 	 */
@@ -211,6 +952,46 @@ public class FileManager {
 		}
 	}
 
+	/**
+	 * Deletes the previous world, including its directory on another storage, and, if a storage path is given, links the world directory
+	 * to a fresh directory on that storage.
+	 * A symlinked world directory the benchmark didn't create itself is only unlinked, its target is left alone.
+	 * Minecraft refuses to load symlinked worlds unless the target is listed in allowed_symlinks.txt, so it is added there as well.
+	 */
+	public static void prepareWorldDirectory(Path worldDir, String storagePath) throws IOException {
+		if (Files.isSymbolicLink(worldDir)) {
+			// Otherwise the world of an earlier cell would keep occupying its storage, which on a tmpfs is RAM the later cells are missing
+			Path previousTarget = Files.readSymbolicLink(worldDir);
+			if (!previousTarget.isAbsolute()) {
+				previousTarget = worldDir.toAbsolutePath().getParent().resolve(previousTarget);
+			}
+			Path previousName = previousTarget.normalize().getFileName();
+			if (previousName != null && previousName.toString().equals(WORLD_STORAGE_DIR)) {
+				deleteDirectory(previousTarget);
+			}
+			Files.delete(worldDir);
+		} else {
+			deleteDirectory(worldDir);
+		}
+
+		if (storagePath.isBlank()) {
+			return;
+		}
+
+		Path target = Paths.get(storagePath, WORLD_STORAGE_DIR).toAbsolutePath().normalize();
+		deleteDirectory(target);
+		Files.createDirectories(target);
+		Files.createSymbolicLink(worldDir, target);
+
+		Path allowedSymlinks = worldDir.toAbsolutePath().getParent().resolve(ALLOWED_SYMLINKS_FILE);
+		String allowEntry = "[prefix]" + target;
+		List<String> lines = Files.exists(allowedSymlinks) ? new ArrayList<>(Files.readAllLines(allowedSymlinks, StandardCharsets.UTF_8)) : new ArrayList<>();
+		if (!lines.contains(allowEntry)) {
+			lines.add(allowEntry);
+			Files.write(allowedSymlinks, lines, StandardCharsets.UTF_8);
+		}
+	}
+
 	/**
 	 * Updates a specific line in a configuration file.
 	 */
@@ -253,7 +1034,14 @@ public class FileManager {
 							} else {
 								// Ensure parent directories exist
 								Files.createDirectories(target.getParent());
-								Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+								// The server only reads datapacks, so a hard link is enough and avoids copying them for every run.
+								// Falls back to a copy if the world is on another filesystem.
+								Files.deleteIfExists(target);
+								try {
+									Files.createLink(target, source);
+								} catch (IOException | UnsupportedOperationException e) {
+									Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+								}
 							}
 						} catch (IOException e) {
 							System.err.println("Failed to copy " + relativePath + ":");
@@ -262,106 +1050,4 @@ public class FileManager {
 					});
 		}
 	}
-
-	/**
-	 * Loads the benchmark progress from a file.
-	 * Returns a list of completed seed indices.
-	 */
-	public static List<Integer> loadBenchmarkProgress(String progressFile) {
-		Path path = Paths.get(progressFile);
-		List<Integer> completedSeeds = new ArrayList<>();
-
-		if (!Files.exists(path)) {
-			return completedSeeds;
-		}
-
-		try (BufferedReader reader = new BufferedReader(new FileReader(path.toFile()))) {
-			String line;
-			while ((line = reader.readLine()) != null) {
-				if (line.startsWith("SEED_COMPLETE,")) {
-					String[] parts = line.split(",");
-					if (parts.length >= 2) {
-						try {
-							int seedIndex = Integer.parseInt(parts[1].trim());
-							completedSeeds.add(seedIndex);
-						} catch (NumberFormatException ignored) {
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.err.println("Error loading benchmark progress:");
-			e.printStackTrace();
-		}
-
-		return completedSeeds;
-	}
-
-	/**
-	 * Saves seed completion and result data to the progress file.
-	 */
-	public static void saveSeedResult(String progressFile, int seedIndex, BenchmarkResult result) {
-		Path path = Paths.get(progressFile);
-
-		try (PrintWriter writer = new PrintWriter(new FileWriter(path.toFile(), true))) {
-			// Format: SEED_COMPLETE:index:elapsedTimeNanos:dbSize:avgCps
-			writer.println("SEED_COMPLETE," + seedIndex + "," +
-					result.elapsedTime() + "," +
-					result.dbSize() + "," +
-					result.averageCps());
-		} catch (IOException e) {
-			System.err.println("Error saving benchmark progress:");
-			e.printStackTrace();
-		}
-	}
-
-	/**
-	 * Loads saved result data for a specific seed.
-	 */
-	public static List<BenchmarkResult> loadSeedResults(String progressFile, int startSeedIndex) throws IOException {
-		Path path = Paths.get(progressFile);
-		List<BenchmarkResult> results = new ArrayList<>();
-
-		if (!Files.exists(path)) {
-			return results;
-		}
-
-		List<String> lines = Files.readAllLines(path);
-
-		lines.stream()
-				.filter(line -> line.startsWith("SEED_COMPLETE,"))
-				.forEach(line -> {
-					String[] parts = line.split(",");
-					if (parts.length == 5) {
-						try {
-							int index = Integer.parseInt(parts[1].trim());
-							if (index < startSeedIndex) {
-								long elapsedTime = Long.parseLong(parts[2].trim());
-								long dbSize = Long.parseLong(parts[3].trim());
-								long avgCps = Long.parseLong(parts[4].trim());
-								results.add(new BenchmarkResult(elapsedTime, dbSize, avgCps));
-							}
-						} catch (NumberFormatException ignored) {
-						}
-					}
-				});
-
-		return results;
-	}
-
-	/**
-	 * Clears the benchmark progress file.
-	 */
-	public static void clearBenchmarkProgress(String progressFile) {
-		Path path = Paths.get(progressFile);
-
-		try {
-			if (Files.exists(path)) {
-				Files.delete(path);
-			}
-		} catch (IOException e) {
-			System.err.println("Error clearing benchmark progress:");
-			e.printStackTrace();
-		}
-	}
 }
@@ -0,0 +1,53 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.GcSummary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the unified JVM GC log written with {@link #LOG_OPTION}.
+ * Every collector logs its stop-the-world pauses as "Pause ... 1.234ms", the concurrent collectors (ZGC, Shenandoah) on the gc+phases tag.
+ */
+public class GcLogParser {
+	public static final String LOG_FILE = "logs/gc.log";
+	// Relative to the server directory, filecount=0 disables the rotation so a single file covers the whole run
+	public static final String LOG_OPTION = "-Xlog:gc,gc+phases:file=" + LOG_FILE + ":uptime:filecount=0";
+
+	private static final Pattern UPTIME = Pattern.compile("^\\[(\\d+(?:[.,]\\d+)?)s]");
+	private static final Pattern PAUSE = Pattern.compile("\\bPause\\b.*\\s(\\d+(?:[.,]\\d+)?)ms$");
+
+	public static GcSummary parse(Path logFile) throws IOException {
+		long pauseCount = 0;
+		double totalPauseMillis = 0;
+		double uptimeSeconds = 0;
+
+		try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				Matcher uptime = UPTIME.matcher(line);
+				if (uptime.find()) {
+					uptimeSeconds = parseDecimal(uptime.group(1));
+				}
+
+				Matcher pause = PAUSE.matcher(line);
+				if (pause.find()) {
+					pauseCount++;
+					totalPauseMillis += parseDecimal(pause.group(1));
+				}
+			}
+		}
+
+		return new GcSummary(pauseCount, totalPauseMillis, uptimeSeconds);
+	}
+
+	// The JVM formats decimals with the default locale, which may use a comma
+	private static double parseDecimal(String value) {
+		return Double.parseDouble(value.replace(',', '.'));
+	}
+}
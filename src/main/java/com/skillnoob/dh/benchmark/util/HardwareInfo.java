@@ -1,5 +1,6 @@
 package com.skillnoob.dh.benchmark.util;
 
+import com.skillnoob.dh.benchmark.data.CpuTopology;
 import oshi.SystemInfo;
 import oshi.hardware.*;
 
@@ -7,13 +8,20 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class HardwareInfo {
 	private static final SystemInfo systemInfo = new SystemInfo();
@@ -26,6 +34,67 @@ public class HardwareInfo {
 		);
 	}
 
+	/**
+	 * Gets the sockets, NUMA nodes and L3 cache domains of the CPU.
+	 * NUMA nodes and L3 domains are read from sysfs and only available on Linux.
+	 */
+	public static CpuTopology getCpuTopology() {
+		CentralProcessor cpu = systemInfo.getHardware().getProcessor();
+		Map<Integer, String> numaNodes = new TreeMap<>();
+		Set<String> l3Domains = new TreeSet<>(Comparator.comparingInt(HardwareInfo::firstCpu));
+
+		Path nodeDir = Paths.get("/sys/devices/system/node");
+		if (Files.isDirectory(nodeDir)) {
+			try (Stream<Path> nodes = Files.list(nodeDir)) {
+				nodes.filter(node -> node.getFileName().toString().matches("node\\d+"))
+						.forEach(node -> numaNodes.put(Integer.parseInt(node.getFileName().toString().substring(4)), readSysFile(node.resolve("cpulist"))));
+			} catch (IOException e) {
+				System.err.println("Error reading NUMA nodes:");
+				e.printStackTrace();
+			}
+		}
+
+		Path cpuDir = Paths.get("/sys/devices/system/cpu");
+		if (Files.isDirectory(cpuDir)) {
+			try (Stream<Path> caches = Files.list(cpuDir)) {
+				caches.filter(dir -> dir.getFileName().toString().matches("cpu\\d+"))
+						.map(dir -> dir.resolve("cache"))
+						.filter(Files::isDirectory)
+						.forEach(cache -> {
+							try (Stream<Path> indices = Files.list(cache)) {
+								indices.filter(index -> readSysFile(index.resolve("level")).equals("3"))
+										.map(index -> readSysFile(index.resolve("shared_cpu_list")))
+										.filter(list -> !list.isEmpty())
+										.forEach(l3Domains::add);
+							} catch (IOException ignored) {
+							}
+						});
+			} catch (IOException e) {
+				System.err.println("Error reading CPU caches:");
+				e.printStackTrace();
+			}
+		}
+
+		return new CpuTopology(cpu.getPhysicalPackageCount(), cpu.getLogicalProcessorCount(), numaNodes, new ArrayList<>(l3Domains));
+	}
+
+	private static String readSysFile(Path path) {
+		try {
+			return Files.readString(path).trim();
+		} catch (IOException e) {
+			return "";
+		}
+	}
+
+	// Gets the first CPU of a CPU list like "0-7,16-23"
+	private static int firstCpu(String cpuList) {
+		try {
+			return Integer.parseInt(cpuList.split("[-,]")[0]);
+		} catch (NumberFormatException e) {
+			return Integer.MAX_VALUE;
+		}
+	}
+
 	// Gets CPU information
 	private static String getCpuInfo() {
 		HardwareAbstractionLayer hardware = systemInfo.getHardware();
@@ -137,7 +206,7 @@ public class HardwareInfo {
 		for (HWDiskStore disk : systemInfo.getHardware().getDiskStores()) {
 			for (HWPartition partition : disk.getPartitions()) {
 				if (partition.getMountPoint() != null) {
-					String mount = unescapeMountPoint(partition.getMountPoint());
+					String mount = HostFingerprints.unescapeMountPoint(partition.getMountPoint());
 
 					if (currentPath.startsWith(mount) && mount.length() > bestMatchLength) {
 						bestMatchLength = mount.length();
@@ -175,19 +244,4 @@ public class HardwareInfo {
 			return "Unknown";
 		}
 	}
-
-	/*
-	 * Unescapes mount points that are escaped with octal codes.
-	 */
-	private static String unescapeMountPoint(String raw) {
-		Pattern p = Pattern.compile("\\\\([0-7]{3})");
-		Matcher m = p.matcher(raw);
-		StringBuilder sb = new StringBuilder();
-		while (m.find()) {
-			int code = Integer.parseInt(m.group(1), 8);
-			m.appendReplacement(sb, Matcher.quoteReplacement(Character.toString((char) code)));
-		}
-		m.appendTail(sb);
-		return sb.toString();
-	}
 }
@@ -0,0 +1,315 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.HostFingerprint;
+import com.skillnoob.dh.benchmark.data.StorageDevice;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HWPartition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Collects the fingerprint of the host without root privileges or subprocesses, so it can be recorded with every run.
+ * On Linux everything is read from /proc and /sys, which takes a few milliseconds. OSHI is only used for what these don't provide,
+ * and on other operating systems.
+ */
+public class HostFingerprints {
+	private static final Path CPUINFO = Paths.get("/proc/cpuinfo");
+	private static final Path MEMINFO = Paths.get("/proc/meminfo");
+	private static final Path MOUNTINFO = Paths.get("/proc/self/mountinfo");
+	private static final Path CPU_DIR = Paths.get("/sys/devices/system/cpu");
+	private static final Path NODE_DIR = Paths.get("/sys/devices/system/node");
+	private static final Path BLOCK_DEVICE_DIR = Paths.get("/sys/dev/block");
+	private static final Path BLOCK_CLASS_DIR = Paths.get("/sys/class/block");
+	private static final String UNKNOWN = "Unknown";
+	private static final Pattern MOUNT_ESCAPE = Pattern.compile("\\\\([0-7]{3})");
+
+	private static HostFingerprint current = null;
+	private static SystemInfo systemInfo = null;
+
+	/**
+	 * Gets the fingerprint of this host. It is only collected once per process.
+	 */
+	public static synchronized HostFingerprint current() {
+		if (current == null) {
+			current = collect();
+		}
+		return current;
+	}
+
+	private static HostFingerprint collect() {
+		String cpuModel = "";
+		int sockets = 0;
+		int physicalCores = 0;
+		int logicalCpus = 0;
+		long memoryBytes = 0;
+
+		if (Files.isReadable(CPUINFO)) {
+			Set<String> packages = new HashSet<>();
+			Set<String> cores = new HashSet<>();
+			String physicalId = "0";
+			for (String line : readLines(CPUINFO)) {
+				int colon = line.indexOf(':');
+				if (colon < 0) {
+					continue;
+				}
+				String key = line.substring(0, colon).trim();
+				String value = line.substring(colon + 1).trim();
+				switch (key) {
+					case "processor" -> logicalCpus++;
+					case "model name" -> {
+						if (cpuModel.isEmpty()) {
+							cpuModel = value;
+						}
+					}
+					case "physical id" -> {
+						physicalId = value;
+						packages.add(value);
+					}
+					// Core IDs are only unique within a package, and "physical id" comes first in every block
+					case "core id" -> cores.add(physicalId + ":" + value);
+					default -> {
+					}
+				}
+			}
+			sockets = packages.size();
+			physicalCores = cores.size();
+		}
+		for (String line : readLines(MEMINFO)) {
+			if (line.startsWith("MemTotal:")) {
+				try {
+					memoryBytes = Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+				} catch (NumberFormatException ignored) {
+				}
+			}
+		}
+
+		// Anything the kernel doesn't report, e.g. the model name on ARM, and everything on other operating systems
+		String caches = readCaches();
+		if (cpuModel.isEmpty() || sockets == 0 || physicalCores == 0 || logicalCpus == 0 || caches.isEmpty()) {
+			CentralProcessor cpu = systemInfo().getHardware().getProcessor();
+			cpuModel = cpuModel.isEmpty() ? cpu.getProcessorIdentifier().getName().trim() : cpuModel;
+			sockets = sockets == 0 ? cpu.getPhysicalPackageCount() : sockets;
+			physicalCores = physicalCores == 0 ? cpu.getPhysicalProcessorCount() : physicalCores;
+			logicalCpus = logicalCpus == 0 ? cpu.getLogicalProcessorCount() : logicalCpus;
+			if (caches.isEmpty()) {
+				caches = String.join(" ", cpu.getProcessorCaches().stream()
+						.map(cache -> formatCache(cache.getLevel(), cache.getType().name(), cache.getCacheSize() / 1024)).toList());
+			}
+		}
+		if (memoryBytes == 0) {
+			memoryBytes = systemInfo().getHardware().getMemory().getTotal();
+		}
+
+		int numaNodes = 0;
+		if (Files.isDirectory(NODE_DIR)) {
+			try (Stream<Path> nodes = Files.list(NODE_DIR)) {
+				numaNodes = (int) nodes.filter(node -> node.getFileName().toString().matches("node\\d+")).count();
+			} catch (IOException ignored) {
+			}
+		}
+
+		return HostFingerprint.of(cpuModel.replaceAll("\\s+", " "), sockets, physicalCores, logicalCpus, caches, numaNodes,
+				readSysFile(CPU_DIR.resolve("cpu0").resolve("cpufreq").resolve("scaling_governor")), memoryBytes,
+				System.getProperty("os.version"), System.getProperty("os.name"),
+				System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version"));
+	}
+
+	/**
+	 * Gets the storage the given path is stored on, e.g. the world directory of a run, which may be linked to another storage target.
+	 */
+	public static StorageDevice storage(Path path) {
+		String[] mount = findMount(path);
+		Path device = mount != null ? findBlockDevice(mount[2]) : null;
+		if (device != null) {
+			String model = readSysFile(device.resolve("device").resolve("model"));
+			// Virtual disks, e.g. virtio, have no model, their name is still more telling than nothing
+			if (model.isEmpty()) {
+				model = device.getFileName().toString();
+			}
+			String rotational = readSysFile(device.resolve("queue").resolve("rotational"));
+			return new StorageDevice(model.trim(), rotational.isEmpty() ? null : rotational.equals("1"));
+		}
+		if (mount != null) {
+			// Storage without a disk, e.g. a tmpfs, is described by its filesystem type, which follows the "-" separator
+			int separator = List.of(mount).indexOf("-");
+			return new StorageDevice(separator >= 0 && separator + 1 < mount.length ? mount[separator + 1] : UNKNOWN, null);
+		}
+
+		// Other operating systems: the disk with the partition mounted closest to the path, or the filesystem type if OSHI doesn't list one
+		String target = realPath(path);
+		String model = null;
+		int bestLength = -1;
+		for (HWDiskStore disk : systemInfo().getHardware().getDiskStores()) {
+			for (HWPartition partition : disk.getPartitions()) {
+				String mountPoint = partition.getMountPoint() != null ? unescapeMountPoint(partition.getMountPoint()) : "";
+				if (!mountPoint.isEmpty() && target.startsWith(mountPoint) && mountPoint.length() > bestLength) {
+					bestLength = mountPoint.length();
+					model = disk.getModel();
+				}
+			}
+		}
+		if (model != null && !model.isBlank() && !model.equals(UNKNOWN)) {
+			return new StorageDevice(model.trim(), null);
+		}
+		try {
+			return new StorageDevice(Files.getFileStore(Paths.get(target)).type(), null);
+		} catch (IOException e) {
+			return new StorageDevice(UNKNOWN, null);
+		}
+	}
+
+	/**
+	 * Resolves symlinks, e.g. a world directory linked to another storage. Paths that don't exist yet are only made absolute.
+	 */
+	private static String realPath(Path path) {
+		try {
+			return path.toRealPath().toString();
+		} catch (IOException e) {
+			return path.toAbsolutePath().toString();
+		}
+	}
+
+	/**
+	 * Reads the caches of the first CPU, or returns an empty string if sysfs doesn't list them.
+	 */
+	private static String readCaches() {
+		Path cacheDir = CPU_DIR.resolve("cpu0").resolve("cache");
+		if (!Files.isDirectory(cacheDir)) {
+			return "";
+		}
+
+		List<String> caches = new ArrayList<>();
+		try (Stream<Path> indices = Files.list(cacheDir)) {
+			indices.filter(index -> index.getFileName().toString().matches("index\\d+"))
+					.sorted()
+					.forEach(index -> {
+						String level = readSysFile(index.resolve("level"));
+						String size = readSysFile(index.resolve("size"));
+						if (!level.isEmpty() && size.endsWith("K")) {
+							try {
+								caches.add(formatCache(Integer.parseInt(level), readSysFile(index.resolve("type")), Long.parseLong(size.substring(0, size.length() - 1))));
+							} catch (NumberFormatException ignored) {
+							}
+						}
+					});
+		} catch (IOException ignored) {
+		}
+		return String.join(" ", caches);
+	}
+
+	private static String formatCache(int level, String type, long sizeKb) {
+		String suffix = switch (type.toUpperCase(Locale.ROOT)) {
+			case "DATA" -> "d";
+			case "INSTRUCTION" -> "i";
+			default -> "";
+		};
+		return "L" + level + suffix + " " + sizeKb + "K";
+	}
+
+	/**
+	 * Finds the fields of the mountinfo line of the mount the given path is stored on, or null if there is no mountinfo, e.g. on other operating systems.
+	 */
+	private static String[] findMount(Path path) {
+		if (!Files.isReadable(MOUNTINFO)) {
+			return null;
+		}
+
+		String target = realPath(path);
+
+		// The mount with the longest mount point that contains the path
+		String[] bestMount = null;
+		int bestLength = -1;
+		for (String line : readLines(MOUNTINFO)) {
+			String[] fields = line.split(" ");
+			if (fields.length < 5) {
+				continue;
+			}
+			String mountPoint = unescapeMountPoint(fields[4]);
+			boolean contains = target.equals(mountPoint) || target.startsWith(mountPoint.endsWith("/") ? mountPoint : mountPoint + "/");
+			if (contains && mountPoint.length() > bestLength) {
+				bestLength = mountPoint.length();
+				bestMount = fields;
+			}
+		}
+		return bestMount;
+	}
+
+	/**
+	 * Finds the sysfs directory of the disk with the given major:minor device number, or null if it isn't a block device, e.g. a tmpfs.
+	 * Partitions resolve to their disk, and device mapper or RAID devices to their first underlying disk.
+	 */
+	private static Path findBlockDevice(String deviceNumber) {
+		try {
+			Path device = BLOCK_DEVICE_DIR.resolve(deviceNumber).toRealPath();
+			for (int depth = 0; depth < 8; depth++) {
+				if (Files.exists(device.resolve("partition"))) {
+					device = device.getParent();
+				}
+				Path slaves = device.resolve("slaves");
+				if (!Files.isDirectory(slaves)) {
+					return device;
+				}
+				try (Stream<Path> entries = Files.list(slaves)) {
+					Path slave = entries.sorted().findFirst().orElse(null);
+					if (slave == null) {
+						return device;
+					}
+					device = BLOCK_CLASS_DIR.resolve(slave.getFileName()).toRealPath();
+				}
+			}
+			return device;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * Unescapes mount points that are escaped with octal codes.
+	 */
+	static String unescapeMountPoint(String raw) {
+		Matcher m = MOUNT_ESCAPE.matcher(raw);
+		StringBuilder sb = new StringBuilder();
+		while (m.find()) {
+			int code = Integer.parseInt(m.group(1), 8);
+			m.appendReplacement(sb, Matcher.quoteReplacement(Character.toString((char) code)));
+		}
+		m.appendTail(sb);
+		return sb.toString();
+	}
+
+	private static synchronized SystemInfo systemInfo() {
+		if (systemInfo == null) {
+			systemInfo = new SystemInfo();
+		}
+		return systemInfo;
+	}
+
+	private static List<String> readLines(Path path) {
+		try {
+			return Files.readAllLines(path);
+		} catch (IOException e) {
+			return List.of();
+		}
+	}
+
+	private static String readSysFile(Path path) {
+		try {
+			return Files.readString(path).trim();
+		} catch (IOException e) {
+			return "";
+		}
+	}
+}
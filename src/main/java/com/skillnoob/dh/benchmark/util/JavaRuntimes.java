@@ -0,0 +1,198 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.JavaRuntime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Finds the Java runtimes installed on this host and checks which of them can run the server.
+ * An empty home stands for the java on the PATH. "auto" stays in the configuration as it is and is only resolved on the host that runs the benchmark.
+ */
+public class JavaRuntimes {
+	// The Minecraft versions the benchmark targets need Java 21
+	public static final int MIN_FEATURE_VERSION = 21;
+	// Expands to every runtime found by discover()
+	public static final String AUTO = "auto";
+	private static final Pattern VERSION = Pattern.compile("version \"([^\"]+)\"");
+	private static final long PROBE_TIMEOUT_SECONDS = 30;
+
+	// The runtimes "auto" resolves to, discovered once per session so every cell of a campaign sees the same ones
+	private static List<String> discovered = null;
+
+	/**
+	 * Gets the java executable of a runtime home.
+	 */
+	public static String executable(String home) {
+		if (home == null || home.isBlank()) {
+			return "java";
+		}
+		boolean windows = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win");
+		return Paths.get(home, "bin", windows ? "java.exe" : "java").toString();
+	}
+
+	public static boolean isAuto(String home) {
+		return home != null && home.trim().equalsIgnoreCase(AUTO);
+	}
+
+	/**
+	 * Replaces the "auto" entry of the configured homes with every runtime on this host that can run the server, skipping homes that are already listed.
+	 */
+	public static List<String> expand(List<String> homes) {
+		Set<String> expanded = new LinkedHashSet<>();
+		for (String home : homes) {
+			if (isAuto(home)) {
+				expanded.addAll(discover());
+			} else {
+				expanded.add(home.trim());
+			}
+		}
+		return new ArrayList<>(expanded);
+	}
+
+	/**
+	 * Looks for runtimes in the usual install locations of package managers, SDKMAN!, IntelliJ and macOS, and in JAVA_HOME.
+	 * Runtimes older than Java 21 and homes that fail to report their version are left out.
+	 */
+	public static synchronized List<String> discover() {
+		if (discovered != null) {
+			return discovered;
+		}
+
+		String userHome = System.getProperty("user.home");
+		List<Path> candidates = new ArrayList<>();
+		candidates.addAll(listDirectories(Paths.get("/usr/lib/jvm")));
+		candidates.addAll(listDirectories(Paths.get("/usr/java")));
+		candidates.addAll(listDirectories(Paths.get(userHome, ".sdkman", "candidates", "java")));
+		candidates.addAll(listDirectories(Paths.get(userHome, ".jdks")));
+		candidates.addAll(listDirectories(Paths.get("/Library/Java/JavaVirtualMachines")).stream().map(jdk -> jdk.resolve("Contents/Home")).toList());
+		String javaHome = System.getenv("JAVA_HOME");
+		if (javaHome != null && !javaHome.isBlank()) {
+			candidates.add(Paths.get(javaHome));
+		}
+
+		// Distributions link the same runtime under several names, e.g. /usr/lib/jvm/default-java and SDKMAN!'s "current"
+		Set<Path> seen = new LinkedHashSet<>();
+		List<String> homes = new ArrayList<>();
+		for (Path candidate : candidates) {
+			if (!Files.isExecutable(Paths.get(executable(candidate.toString())))) {
+				continue;
+			}
+			try {
+				if (!seen.add(candidate.toRealPath())) {
+					continue;
+				}
+			} catch (IOException e) {
+				continue;
+			}
+
+			try {
+				JavaRuntime runtime = probe(candidate.toString());
+				if (runtime.featureVersion() >= MIN_FEATURE_VERSION) {
+					homes.add(candidate.toString());
+				} else {
+					System.out.println("Skipping Java " + runtime.version() + " in " + candidate + ", the server needs Java " + MIN_FEATURE_VERSION + " or newer.");
+				}
+			} catch (IOException e) {
+				System.out.println("Skipping " + candidate + ": " + e.getMessage());
+			}
+		}
+		discovered = List.copyOf(homes);
+		return discovered;
+	}
+
+	/**
+	 * Checks that every home can run the server, so a typo or an outdated runtime is reported before the campaign starts instead of hours into it.
+	 * Returns the runtimes of the homes.
+	 */
+	public static List<JavaRuntime> validate(List<String> homes) {
+		List<JavaRuntime> runtimes = new ArrayList<>();
+		for (String home : homes) {
+			JavaRuntime runtime;
+			try {
+				runtime = probe(home);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Invalid Java home \"" + home + "\": " + e.getMessage());
+			}
+			if (runtime.featureVersion() < MIN_FEATURE_VERSION) {
+				throw new IllegalArgumentException("The Java home \"" + home + "\" is Java " + runtime.version() + ", the server needs Java " + MIN_FEATURE_VERSION + " or newer.");
+			}
+			runtimes.add(runtime);
+		}
+		return runtimes;
+	}
+
+	/**
+	 * Runs "java -version" of a home and parses its output.
+	 * Not cached, so a runtime that was updated in place during a campaign is reported as the new version from then on.
+	 */
+	public static JavaRuntime probe(String home) throws IOException {
+		String key = home == null ? "" : home.trim();
+		List<String> output = new ArrayList<>();
+		try {
+			Process process = new ProcessBuilder(executable(key), "-version").redirectErrorStream(true).start();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					output.add(line.trim());
+				}
+			}
+			if (!process.waitFor(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+				throw new IOException("java -version did not finish in time");
+			}
+			if (process.exitValue() != 0) {
+				throw new IOException("java -version failed with exit code " + process.exitValue());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while running java -version", e);
+		}
+
+		// The first line holds the version, the second one the runtime name and build, e.g.
+		// openjdk version "21.0.1" 2023-10-17
+		// OpenJDK Runtime Environment Temurin-21.0.1+12 (build 21.0.1+12-LTS)
+		// JVMs may print warnings before that, e.g. about options in JAVA_TOOL_OPTIONS
+		for (int i = 0; i < output.size(); i++) {
+			Matcher matcher = VERSION.matcher(output.get(i));
+			if (matcher.find()) {
+				String version = matcher.group(1);
+				String runtime = i + 1 < output.size() ? output.get(i + 1) : "";
+				return new JavaRuntime(key, featureVersion(version), version, runtime);
+			}
+		}
+		throw new IOException("Could not find the version in the output of java -version: " + String.join(" ", output));
+	}
+
+	private static int featureVersion(String version) {
+		// Java 8 and older report themselves as 1.x
+		String feature = version.startsWith("1.") ? version.substring(2) : version;
+		Matcher matcher = Pattern.compile("^(\\d+)").matcher(feature);
+		return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+	}
+
+	private static List<Path> listDirectories(Path dir) {
+		if (!Files.isDirectory(dir)) {
+			return List.of();
+		}
+		try (Stream<Path> entries = Files.list(dir)) {
+			return entries.filter(Files::isDirectory).sorted().toList();
+		} catch (IOException e) {
+			return List.of();
+		}
+	}
+}
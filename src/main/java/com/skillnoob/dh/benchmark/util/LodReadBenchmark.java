@@ -0,0 +1,147 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.ReadBenchmarkResult;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures how fast LODs can be read back from a Distant Horizons database, which is what players feel when they connect.
+ * Every reader runs on its own virtual thread with its own read-only connection.
+ */
+public class LodReadBenchmark {
+	private static final String LOAD_KEYS_QUERY = "SELECT DetailLevel, PosX, PosZ FROM FullData";
+	private static final String LOOKUP_QUERY = "SELECT Data FROM FullData WHERE DetailLevel = ? AND PosX = ? AND PosZ = ?";
+	// Side length of the square of neighbouring positions read around every center in the spatial pattern.
+	private static final int SPATIAL_AREA = 8;
+
+	public enum AccessPattern {
+		/**
+		 * Uniformly random positions of existing LODs.
+		 */
+		RANDOM,
+		/**
+		 * Squares of neighbouring positions around random centers, like a client loading the LODs around a player.
+		 */
+		SPATIAL
+	}
+
+	/**
+	 * Runs the given number of lookups with the given access pattern, spread across the given number of reader threads.
+	 */
+	public static ReadBenchmarkResult run(Path database, AccessPattern pattern, int threads, int queries) throws SQLException {
+		int[][] keys = loadKeys(database);
+		if (keys.length == 0) {
+			throw new SQLException("The database doesn't contain any LODs");
+		}
+
+		int queriesPerThread = Math.max(1, queries / threads);
+		List<Future<long[]>> readers = new ArrayList<>();
+		long start = System.nanoTime();
+
+		// Closing the executor waits for all readers to finish
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < threads; i++) {
+				long readerSeed = i;
+				readers.add(executor.submit(() -> read(database, keys, pattern, queriesPerThread, new Random(readerSeed))));
+			}
+		}
+		long end = System.nanoTime();
+
+		long[] latencies = new long[queriesPerThread * threads];
+		int offset = 0;
+		for (Future<long[]> reader : readers) {
+			if (reader.state() == Future.State.FAILED) {
+				throw reader.exceptionNow() instanceof SQLException sqlException ? sqlException : new SQLException(reader.exceptionNow());
+			}
+			long[] readerLatencies = reader.resultNow();
+			System.arraycopy(readerLatencies, 0, latencies, offset, readerLatencies.length);
+			offset += readerLatencies.length;
+		}
+		Arrays.sort(latencies);
+
+		double seconds = (end - start) / 1_000_000_000.0;
+		return new ReadBenchmarkResult(pattern.name(), latencies.length, latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99));
+	}
+
+	/**
+	 * Loads the detail level and position of every LOD, so lookups can target rows that exist.
+	 */
+	private static int[][] loadKeys(Path database) throws SQLException {
+		List<int[]> keys = new ArrayList<>();
+		try (Connection connection = DatabaseAnalyzer.openReadOnly(database);
+			 Statement statement = connection.createStatement();
+			 ResultSet rs = statement.executeQuery(LOAD_KEYS_QUERY)) {
+			while (rs.next()) {
+				keys.add(new int[]{rs.getInt(1), rs.getInt(2), rs.getInt(3)});
+			}
+		}
+		return keys.toArray(new int[0][]);
+	}
+
+	/**
+	 * Runs the lookups of a single reader and returns the latency of every lookup.
+	 */
+	private static long[] read(Path database, int[][] keys, AccessPattern pattern, int queries, Random random) throws SQLException {
+		long[] latencies = new long[queries];
+
+		try (Connection connection = DatabaseAnalyzer.openReadOnly(database);
+			 PreparedStatement statement = connection.prepareStatement(LOOKUP_QUERY)) {
+			int[] center = keys[random.nextInt(keys.length)];
+
+			for (int i = 0; i < queries; i++) {
+				int detailLevel;
+				int x;
+				int z;
+
+				if (pattern == AccessPattern.RANDOM) {
+					int[] key = keys[random.nextInt(keys.length)];
+					detailLevel = key[0];
+					x = key[1];
+					z = key[2];
+				} else {
+					int step = i % (SPATIAL_AREA * SPATIAL_AREA);
+					if (step == 0) {
+						center = keys[random.nextInt(keys.length)];
+					}
+					detailLevel = center[0];
+					x = center[1] + step % SPATIAL_AREA - SPATIAL_AREA / 2;
+					z = center[2] + step / SPATIAL_AREA - SPATIAL_AREA / 2;
+				}
+
+				long start = System.nanoTime();
+				statement.setInt(1, detailLevel);
+				statement.setInt(2, x);
+				statement.setInt(3, z);
+				try (ResultSet rs = statement.executeQuery()) {
+					// Read the data as well, a lookup isn't done until the LOD arrived
+					while (rs.next()) {
+						rs.getBytes(1);
+					}
+				}
+				latencies[i] = System.nanoTime() - start;
+			}
+		}
+
+		return latencies;
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.clamp(index, 0, sorted.length - 1)];
+	}
+}
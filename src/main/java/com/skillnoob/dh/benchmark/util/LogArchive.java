@@ -0,0 +1,120 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.skillnoob.dh.benchmark.data.LogArchiveHeader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compressed archive of the raw server output of a run.
+ * The first line is the JSON header, every following line is "nanos&lt;TAB&gt;line", with the time the line was read relative to the start of the archive.
+ */
+public class LogArchive {
+	public static final int VERSION = 1;
+	private static final Gson GSON = new Gson();
+
+	public record ArchivedLine(long nanos, String line) {
+	}
+
+	public static class Writer implements AutoCloseable {
+		private final BufferedWriter writer;
+		private final long originNanos = System.nanoTime();
+		private boolean closed = false;
+
+		public Writer(Path file, LogArchiveHeader header) throws IOException {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+			writer.write(GSON.toJson(header));
+			writer.newLine();
+		}
+
+		/**
+		 * Appends a line that was read at the given System.nanoTime(). Lines that arrive after the archive was closed are dropped.
+		 */
+		public synchronized void append(long nanos, String line) throws IOException {
+			if (closed) {
+				return;
+			}
+			writer.write(Long.toString(nanos - originNanos));
+			writer.write('\t');
+			writer.write(line);
+			writer.newLine();
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Streams an archive line by line, so even archives of multi-GB debug logs are read in constant memory.
+	 */
+	public static class Reader implements AutoCloseable {
+		private final BufferedReader reader;
+		private final LogArchiveHeader header;
+
+		public Reader(Path file) throws IOException {
+			reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+			try {
+				String firstLine = reader.readLine();
+				header = firstLine != null ? GSON.fromJson(firstLine, LogArchiveHeader.class) : null;
+				if (header == null || header.version() > VERSION) {
+					throw new IOException("Not a supported log archive: " + file);
+				}
+			} catch (IOException | JsonParseException e) {
+				reader.close();
+				throw e instanceof IOException io ? io : new IOException("Not a supported log archive: " + file, e);
+			}
+		}
+
+		public LogArchiveHeader header() {
+			return header;
+		}
+
+		/**
+		 * Reads the next line, or returns null at the end of the archive.
+		 * A line torn by a crash of the benchmark is treated as the end.
+		 */
+		public ArchivedLine next() throws IOException {
+			String line;
+			try {
+				line = reader.readLine();
+			} catch (EOFException e) {
+				return null;
+			}
+			if (line == null) {
+				return null;
+			}
+
+			int tab = line.indexOf('\t');
+			if (tab <= 0) {
+				return null;
+			}
+			try {
+				return new ArchivedLine(Long.parseLong(line, 0, tab, 10), line.substring(tab + 1));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
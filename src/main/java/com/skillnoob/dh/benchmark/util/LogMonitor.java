@@ -7,21 +7,47 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 public class LogMonitor implements AutoCloseable {
-    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Line> queue = new LinkedBlockingQueue<>();
     private final Thread readerThread;
 
     /**
      * Creates a LogMonitor with specified debug mode.
      */
     public LogMonitor(BufferedReader reader, boolean debugMode) {
+        this(reader, debugMode, null);
+    }
+
+    /**
+     * A line of the server output with the System.nanoTime() it was read at.
+     */
+    public record Line(long nanos, String text) {
+    }
+
+    /**
+     * Tests a line of the server output, together with the time it was read at.
+     */
+    @FunctionalInterface
+    public interface LinePredicate {
+        boolean test(long nanos, String line);
+    }
+
+    /**
+     * Creates a LogMonitor with specified debug mode that also archives every line, if an archive is given.
+     * Every line is timestamped once when it is read, so the archive and the parsers see the same time even if the parsers fall behind.
+     */
+    public LogMonitor(BufferedReader reader, boolean debugMode, LogArchive.Writer archive) {
         readerThread = new Thread(() -> {
             try {
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    long nanos = System.nanoTime();
                     if (debugMode) {
                         System.out.println(line);
                     }
-                    queue.offer(line);
+                    if (archive != null) {
+                        archive.append(nanos, line);
+                    }
+                    queue.offer(new Line(nanos, line));
                 }
             } catch (IOException e) {
                 System.err.println("LogMonitor error:");
@@ -35,7 +61,7 @@ public class LogMonitor implements AutoCloseable {
     /**
      * Polls for the next line, waiting up to the given timeout.
      */
-    public String pollLine(long timeout, TimeUnit unit) throws InterruptedException {
+    public Line pollLine(long timeout, TimeUnit unit) throws InterruptedException {
         return queue.poll(timeout, unit);
     }
 
@@ -0,0 +1,163 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.PregenTask;
+import com.skillnoob.dh.benchmark.data.PregenTaskResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the pregen timing and progress from the server log.
+ * It only depends on the lines and the time they were read at, so live runs and replayed log archives are evaluated identically.
+ * The pregen tasks of a run are expected to run one after another, in the given order.
+ */
+public class PregenLogParser {
+	// DH formats the percentage with the default locale, so the decimal separator may be a comma
+	private static final Pattern PROGRESS = Pattern.compile("(\\d+(?:[.,]\\d+)?)%");
+
+	public enum Event {
+		NONE,
+		STARTED,
+		PROGRESS,
+		/**
+		 * A task completed, but there are more to run.
+		 */
+		TASK_COMPLETE,
+		/**
+		 * The last task completed.
+		 */
+		COMPLETE
+	}
+
+	private final List<PregenTask> tasks;
+	private final double totalChunks;
+	private final List<PregenTaskResult> taskResults = new ArrayList<>();
+	private double completedChunks = 0;
+	private long startNanos = -1;
+	private long taskStartNanos = -1;
+	private long elapsedNanos = 0;
+	private double taskProgressPercent = 0;
+	private double intervalCps = -1;
+	private long lastProgressNanos = -1;
+	private boolean complete = false;
+
+	public PregenLogParser(int generationRadius) {
+		this(List.of(PregenTask.atOrigin(generationRadius)));
+	}
+
+	public PregenLogParser(List<PregenTask> tasks) {
+		this.tasks = tasks;
+		totalChunks = tasks.stream().mapToDouble(PregenTask::chunks).sum();
+	}
+
+	/**
+	 * Evaluates a log line that was read at the given time, in System.nanoTime() or any other monotonic clock.
+	 */
+	public Event accept(long nanos, String line) {
+		if (complete) {
+			return Event.NONE;
+		}
+
+		if (line.contains("Starting pregen")) {
+			if (startNanos < 0) {
+				startNanos = nanos;
+			}
+			taskStartNanos = nanos;
+			lastProgressNanos = nanos;
+			taskProgressPercent = 0;
+			return Event.STARTED;
+		}
+
+		if (line.contains("Pregen is complete")) {
+			PregenTask task = currentTask();
+			taskResults.add(new PregenTaskResult(task.label(), Math.round(task.chunks()), taskStartNanos >= 0 ? nanos - taskStartNanos : 0));
+			completedChunks += task.chunks();
+			taskStartNanos = -1;
+			taskProgressPercent = 0;
+
+			if (taskResults.size() < tasks.size()) {
+				return Event.TASK_COMPLETE;
+			}
+			if (startNanos >= 0) {
+				elapsedNanos = nanos - startNanos;
+			}
+			complete = true;
+			return Event.COMPLETE;
+		}
+
+		// Extract data from the DH generation line
+		if (line.contains("Generated radius:")) {
+			Matcher matcher = PROGRESS.matcher(line);
+			if (matcher.find()) {
+				try {
+					double percentage = Double.parseDouble(matcher.group(1).replace(',', '.'));
+					double seconds = (nanos - lastProgressNanos) / 1_000_000_000.0;
+					intervalCps = lastProgressNanos >= 0 && seconds > 0 && percentage >= taskProgressPercent
+							? (percentage - taskProgressPercent) / 100 * currentTask().chunks() / seconds : -1;
+					taskProgressPercent = percentage;
+					lastProgressNanos = nanos;
+					return Event.PROGRESS;
+				} catch (NumberFormatException ignored) {
+				}
+			}
+		}
+
+		return Event.NONE;
+	}
+
+	/**
+	 * The task that is running, or is started next if the previous one just completed. The last task once all are complete.
+	 */
+	public PregenTask currentTask() {
+		return tasks.get(Math.min(taskResults.size(), tasks.size() - 1));
+	}
+
+	public long startNanos() {
+		return startNanos;
+	}
+
+	/**
+	 * The time between the start of the first and the completion of the last pregen task, or 0 if they haven't completed.
+	 */
+	public long elapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * The progress of all tasks together, weighted by their number of chunks.
+	 */
+	public double progressPercent() {
+		if (complete) {
+			return 100;
+		}
+		return totalChunks > 0 ? (completedChunks + taskProgressPercent / 100 * currentTask().chunks()) / totalChunks * 100 : 0;
+	}
+
+	/**
+	 * The Cps between the last two progress lines, or -1 if there is no previous line to compare against.
+	 */
+	public double intervalCps() {
+		return intervalCps;
+	}
+
+	public boolean complete() {
+		return complete;
+	}
+
+	/**
+	 * The timing of every task that completed so far.
+	 */
+	public List<PregenTaskResult> taskResults() {
+		return List.copyOf(taskResults);
+	}
+
+	/**
+	 * The average chunks per second of all tasks together once they completed, or 0 if they haven't.
+	 */
+	public long averageCps() {
+		long seconds = elapsedNanos / 1_000_000_000L;
+		return seconds > 0 ? Math.round(totalChunks / seconds) : 0;
+	}
+}
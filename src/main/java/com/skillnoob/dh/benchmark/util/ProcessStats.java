@@ -0,0 +1,51 @@
+package com.skillnoob.dh.benchmark.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads statistics of a running process from procfs. Only available on Linux, elsewhere every value is -1.
+ */
+public class ProcessStats {
+	/**
+	 * Gets the number of bytes the process caused to be written to the storage layer, from /proc/[pid]/io.
+	 */
+	public static long readWriteBytes(long pid) {
+		if (pid <= 0) {
+			return -1;
+		}
+		return readField(Paths.get("/proc", String.valueOf(pid), "io"), "write_bytes:");
+	}
+
+	/**
+	 * Gets the peak resident set size of the process in bytes, from VmHWM in /proc/[pid]/status.
+	 */
+	public static long readPeakRssBytes(long pid) {
+		if (pid <= 0) {
+			return -1;
+		}
+		long kilobytes = readField(Paths.get("/proc", String.valueOf(pid), "status"), "VmHWM:");
+		return kilobytes >= 0 ? kilobytes * 1024 : -1;
+	}
+
+	/**
+	 * Reads a numeric "key: value" field of a procfs file, ignoring any unit suffix.
+	 */
+	static long readField(Path file, String key) {
+		if (!Files.isReadable(file)) {
+			return -1;
+		}
+
+		try {
+			for (String line : Files.readAllLines(file)) {
+				if (line.startsWith(key)) {
+					return Long.parseLong(line.substring(key.length()).trim().split("\\s+")[0]);
+				}
+			}
+		} catch (IOException | NumberFormatException ignored) {
+		}
+		return -1;
+	}
+}
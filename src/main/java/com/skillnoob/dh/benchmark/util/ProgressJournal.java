@@ -0,0 +1,227 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.skillnoob.dh.benchmark.data.BenchmarkResult;
+import com.skillnoob.dh.benchmark.data.JournalEntry;
+import com.skillnoob.dh.benchmark.data.RunKey;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the benchmark progress.
+ * Every entry is written on its own line as "crc32 json" and synced to disk before the call returns,
+ * so a crash or power loss can at most tear the last line, which is then detected by the checksum and ignored.
+ */
+public class ProgressJournal implements AutoCloseable {
+	private static final Gson GSON = new Gson();
+
+	private final Path path;
+	private final List<JournalEntry> entries = new ArrayList<>();
+	private int corruptEntries = 0;
+	private boolean needsLineBreak = false;
+	private FileChannel channel = null;
+
+	public ProgressJournal(Path path) throws IOException {
+		this.path = path;
+		load();
+	}
+
+	/**
+	 * Reads all intact entries of the journal, skipping lines that fail the checksum.
+	 */
+	private void load() throws IOException {
+		if (!Files.exists(path)) {
+			return;
+		}
+
+		// InputStreamReader replaces malformed bytes instead of failing, which can happen with a torn write.
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+
+				JournalEntry entry = decode(line);
+				if (entry != null) {
+					entries.add(entry);
+				} else {
+					corruptEntries++;
+				}
+			}
+		}
+
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+			if (file.length() > 0) {
+				file.seek(file.length() - 1);
+				needsLineBreak = file.read() != '\n';
+			}
+		}
+	}
+
+	/**
+	 * Records that a run is about to start.
+	 */
+	public void recordStart(RunKey key) throws IOException {
+		append(new JournalEntry(JournalEntry.Type.START, key.configHash(), key.seed(), key.repetition(), null, null));
+	}
+
+	/**
+	 * Records the result of a finished run.
+	 */
+	public void recordResult(RunKey key, BenchmarkResult result) throws IOException {
+		append(new JournalEntry(JournalEntry.Type.COMPLETE, key.configHash(), key.seed(), key.repetition(), result, null));
+	}
+
+	/**
+	 * Records that a run ended without a result, so it is repeated on resume.
+	 */
+	public void recordFailure(RunKey key, String reason) throws IOException {
+		append(new JournalEntry(JournalEntry.Type.FAILED, key.configHash(), key.seed(), key.repetition(), null, reason));
+	}
+
+	/**
+	 * Gets the results of all completed runs, regardless of the order they were recorded in.
+	 * If a run was recorded more than once, the latest result wins.
+	 */
+	public Map<RunKey, BenchmarkResult> completedRuns() {
+		Map<RunKey, BenchmarkResult> completed = new LinkedHashMap<>();
+		for (JournalEntry entry : entries) {
+			if (entry.type() == JournalEntry.Type.COMPLETE && entry.result() != null) {
+				completed.put(entry.key(), entry.result());
+			}
+		}
+		return completed;
+	}
+
+	/**
+	 * Gets the reason of every run whose last attempt failed.
+	 */
+	public Map<RunKey, String> failedRuns() {
+		Map<RunKey, String> failed = new LinkedHashMap<>();
+		for (JournalEntry entry : entries) {
+			if (entry.type() == JournalEntry.Type.FAILED) {
+				failed.put(entry.key(), entry.failure());
+			} else {
+				failed.remove(entry.key());
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Gets all runs that were started but never completed, e.g. because the process was killed.
+	 */
+	public Set<RunKey> interruptedRuns() {
+		Set<RunKey> interrupted = new LinkedHashSet<>();
+		for (JournalEntry entry : entries) {
+			if (entry.type() == JournalEntry.Type.START) {
+				interrupted.add(entry.key());
+			} else {
+				interrupted.remove(entry.key());
+			}
+		}
+		return interrupted;
+	}
+
+	/**
+	 * Gets the number of lines that were skipped because they were torn or corrupted.
+	 */
+	public int corruptEntries() {
+		return corruptEntries;
+	}
+
+	/**
+	 * Deletes the journal and forgets all entries.
+	 */
+	public void clear() throws IOException {
+		close();
+		Files.deleteIfExists(path);
+		entries.clear();
+		corruptEntries = 0;
+		needsLineBreak = false;
+	}
+
+	private synchronized void append(JournalEntry entry) throws IOException {
+		if (channel == null) {
+			boolean created = !Files.exists(path);
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			if (created) {
+				syncParentDirectory();
+			}
+		}
+
+		String json = GSON.toJson(entry);
+		String line = (needsLineBreak ? "\n" : "") + checksum(json) + " " + json + "\n";
+		ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(true);
+
+		needsLineBreak = false;
+		entries.add(entry);
+	}
+
+	/**
+	 * Makes sure the directory entry of a newly created journal survives a power loss.
+	 * Not supported on every platform, in which case this is a no-op.
+	 */
+	private void syncParentDirectory() {
+		Path parent = path.toAbsolutePath().getParent();
+		try (FileChannel directory = FileChannel.open(parent, StandardOpenOption.READ)) {
+			directory.force(true);
+		} catch (IOException ignored) {
+		}
+	}
+
+	private static JournalEntry decode(String line) {
+		int separator = line.indexOf(' ');
+		if (separator <= 0) {
+			return null;
+		}
+
+		String json = line.substring(separator + 1);
+		if (!line.substring(0, separator).equals(checksum(json))) {
+			return null;
+		}
+
+		try {
+			JournalEntry entry = GSON.fromJson(json, JournalEntry.class);
+			return entry != null && entry.type() != null && entry.configHash() != null && entry.seed() != null ? entry : null;
+		} catch (JsonParseException e) {
+			return null;
+		}
+	}
+
+	private static String checksum(String json) {
+		CRC32 crc = new CRC32();
+		crc.update(json.getBytes(StandardCharsets.UTF_8));
+		return String.format("%08x", crc.getValue());
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.StartupPhase;
+import com.skillnoob.dh.benchmark.data.StartupProfile;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Splits a server start into its phases from the time the log lines marking their ends were read at.
+ * The phases are matched in order, a line may skip phases whose own line didn't appear, e.g. because a mod changed its log output.
+ */
+public class StartupLogParser {
+	private static final StartupPhase[] PHASES = StartupPhase.values();
+
+	private final long launchNanos;
+	private final Map<StartupPhase, Long> endNanos = new EnumMap<>(StartupPhase.class);
+	private int nextPhase = 0;
+
+	/**
+	 * Creates a parser for a server that was launched at the given time, in System.nanoTime() or any other monotonic clock.
+	 */
+	public StartupLogParser(long launchNanos) {
+		this.launchNanos = launchNanos;
+	}
+
+	/**
+	 * Evaluates a log line that was read at the given time. Returns true once the server is done starting.
+	 */
+	public boolean accept(long nanos, String line) {
+		for (int i = nextPhase; i < PHASES.length; i++) {
+			if (PHASES[i].endsWith(line)) {
+				endNanos.put(PHASES[i], nanos - launchNanos);
+				nextPhase = i + 1;
+				break;
+			}
+		}
+		return done();
+	}
+
+	public boolean done() {
+		return nextPhase == PHASES.length;
+	}
+
+	/**
+	 * The phases seen so far. The total is the end of the last phase seen, or 0 if none was.
+	 */
+	public StartupProfile profile() {
+		Map<StartupPhase, Long> durations = new EnumMap<>(StartupPhase.class);
+		long previousEnd = 0;
+		for (Map.Entry<StartupPhase, Long> phase : endNanos.entrySet()) {
+			durations.put(phase.getKey(), phase.getValue() - previousEnd);
+			previousEnd = phase.getValue();
+		}
+		return new StartupProfile(durations, previousEnd);
+	}
+}
@@ -0,0 +1,175 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.ThermalSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Samples the CPU frequency, temperature and RAPL energy counters from sysfs while a pregen runs, to detect thermal throttling (Linux only).
+ */
+public class ThermalSampler implements AutoCloseable {
+	private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+	// The frequency of the first samples is the reference a throttled run is compared against.
+	private static final int START_SAMPLES = 5;
+
+	private final double throttleThresholdPercent;
+	private final List<Path> frequencyFiles;
+	private final List<Path> temperatureFiles;
+	private final List<Path> energyDomains;
+	private final List<Double> frequencies = new ArrayList<>();
+	private final long[] lastEnergy;
+	private final Thread samplerThread;
+	private volatile boolean running = true;
+	private double maxTemperature = -1;
+	private double energyMicroJoules = 0;
+
+	/**
+	 * Starts sampling in the background.
+	 */
+	public ThermalSampler(double throttleThresholdPercent) {
+		this.throttleThresholdPercent = throttleThresholdPercent;
+		frequencyFiles = listFiles(Paths.get("/sys/devices/system/cpu"), "cpu\\d+", "cpufreq/scaling_cur_freq");
+		temperatureFiles = listFiles(Paths.get("/sys/class/thermal"), "thermal_zone\\d+", "temp");
+		// Only the top level package domains, the subdomains (e.g. intel-rapl:0:0) are already included in them.
+		// The psys domain of client CPUs is the whole platform, including the packages, so it would count them twice.
+		energyDomains = listFiles(Paths.get("/sys/class/powercap"), "intel-rapl:\\d+", "energy_uj").stream().map(Path::getParent)
+				.filter(domain -> !readString(domain.resolve("name")).equals("psys"))
+				.toList();
+
+		lastEnergy = new long[energyDomains.size()];
+		readEnergyCounters();
+
+		samplerThread = new Thread(this::sampleLoop, "ThermalSampler-Thread");
+		samplerThread.setDaemon(true);
+		samplerThread.start();
+	}
+
+	/**
+	 * Discards everything sampled so far, so the summary only covers the time from now on, e.g. from the actual start of the pregen.
+	 */
+	public synchronized void restart() {
+		frequencies.clear();
+		maxTemperature = -1;
+		energyMicroJoules = 0;
+		readEnergyCounters();
+	}
+
+	private void readEnergyCounters() {
+		for (int i = 0; i < energyDomains.size(); i++) {
+			lastEnergy[i] = readLong(energyDomains.get(i).resolve("energy_uj"));
+		}
+	}
+
+	private void sampleLoop() {
+		while (running) {
+			sample();
+			try {
+				Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	private synchronized void sample() {
+		double frequencySum = 0;
+		int frequencyCount = 0;
+		for (Path file : frequencyFiles) {
+			long khz = readLong(file);
+			if (khz > 0) {
+				frequencySum += khz / 1000.0;
+				frequencyCount++;
+			}
+		}
+		if (frequencyCount > 0) {
+			frequencies.add(frequencySum / frequencyCount);
+			TraceRecorder.counter("CPU frequency (MHz)", frequencySum / frequencyCount);
+		}
+
+		for (Path file : temperatureFiles) {
+			long milliCelsius = readLong(file);
+			if (milliCelsius > 0) {
+				maxTemperature = Math.max(maxTemperature, milliCelsius / 1000.0);
+			}
+		}
+
+		for (int i = 0; i < energyDomains.size(); i++) {
+			long energy = readLong(energyDomains.get(i).resolve("energy_uj"));
+			if (energy < 0 || lastEnergy[i] < 0) {
+				continue;
+			}
+
+			long delta = energy - lastEnergy[i];
+			if (delta < 0) {
+				// The counter wrapped around
+				delta += readLong(energyDomains.get(i).resolve("max_energy_range_uj"));
+			}
+			energyMicroJoules += delta;
+			lastEnergy[i] = energy;
+		}
+	}
+
+	/**
+	 * Stops sampling and summarizes the samples.
+	 */
+	public synchronized ThermalSummary summarize() {
+		close();
+		sample();
+
+		double start = frequencies.stream().limit(START_SAMPLES).mapToDouble(Double::doubleValue).average().orElse(-1);
+		double average = frequencies.stream().mapToDouble(Double::doubleValue).average().orElse(-1);
+		double min = frequencies.stream().mapToDouble(Double::doubleValue).min().orElse(-1);
+		boolean energyAvailable = lastEnergy.length > 0 && Arrays.stream(lastEnergy).allMatch(energy -> energy >= 0);
+		boolean throttled = start > 0 && average < start * (1 - throttleThresholdPercent / 100);
+
+		return new ThermalSummary(start, average, min, maxTemperature, energyAvailable ? energyMicroJoules / 1_000_000.0 : -1, throttled);
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		samplerThread.interrupt();
+	}
+
+	/**
+	 * Lists the given file inside every subdirectory whose name matches the pattern, e.g. the current frequency of every CPU.
+	 */
+	private static List<Path> listFiles(Path dir, String subdirPattern, String file) {
+		if (!Files.isDirectory(dir)) {
+			return List.of();
+		}
+
+		try (Stream<Path> subdirs = Files.list(dir)) {
+			return subdirs.filter(subdir -> subdir.getFileName().toString().matches(subdirPattern))
+					.map(subdir -> subdir.resolve(file))
+					.filter(Files::isReadable)
+					.sorted()
+					.toList();
+		} catch (IOException e) {
+			return List.of();
+		}
+	}
+
+	private static String readString(Path file) {
+		try {
+			return Files.readString(file).trim();
+		} catch (IOException e) {
+			return "";
+		}
+	}
+
+	private static long readLong(Path file) {
+		try {
+			return Long.parseLong(Files.readString(file).trim());
+		} catch (IOException | NumberFormatException e) {
+			return -1;
+		}
+	}
+}
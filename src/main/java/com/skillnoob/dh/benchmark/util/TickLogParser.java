@@ -0,0 +1,82 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.TickSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the answers to "tick query" in the server log over one phase of a run, e.g. the idle baseline or the pregen.
+ * It only depends on the lines and the time they were read at, so live runs and replayed log archives are evaluated identically.
+ * The first query of a phase is sent one interval after the phase started, so answers read before that belong to a query of the previous phase and are ignored.
+ */
+public class TickLogParser {
+	// The number format follows the server's locale, so the decimal separator may be a comma
+	private static final Pattern AVERAGE = Pattern.compile("Average time per tick: (\\d+(?:[.,]\\d+)?)ms");
+	private static final Pattern PERCENTILES = Pattern.compile("P50: (\\d+(?:[.,]\\d+)?)ms P95: (\\d+(?:[.,]\\d+)?)ms P99: (\\d+(?:[.,]\\d+)?)ms");
+
+	public record Sample(double averageMspt, double p50Ms, double p95Ms, double p99Ms) {
+	}
+
+	private final long firstQueryNanos;
+	private final List<Sample> samples = new ArrayList<>();
+	private double pendingAverage = -1;
+
+	/**
+	 * Starts a phase at the given time, in System.nanoTime() or the clock of a log archive.
+	 */
+	public TickLogParser(long startNanos, int intervalSeconds) {
+		firstQueryNanos = startNanos + intervalSeconds * 1_000_000_000L;
+	}
+
+	/**
+	 * Evaluates a log line that was read at the given time. The average and the percentiles are logged as separate lines.
+	 * Returns true if the line completed a sample.
+	 */
+	public boolean accept(long nanos, String line) {
+		Matcher average = AVERAGE.matcher(line);
+		if (average.find()) {
+			pendingAverage = nanos >= firstQueryNanos ? parse(average.group(1)) : -1;
+			return false;
+		}
+
+		Matcher percentiles = PERCENTILES.matcher(line);
+		if (percentiles.find() && pendingAverage >= 0) {
+			samples.add(new Sample(pendingAverage, parse(percentiles.group(1)), parse(percentiles.group(2)), parse(percentiles.group(3))));
+			pendingAverage = -1;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the sample completed last, or null if there is none yet.
+	 */
+	public Sample lastSample() {
+		return samples.isEmpty() ? null : samples.getLast();
+	}
+
+	/**
+	 * Summarizes the collected tick times.
+	 * Returns null if the server never answered, e.g. because it predates the tick command.
+	 */
+	public TickSummary summarize() {
+		if (samples.isEmpty()) {
+			return null;
+		}
+		return new TickSummary(
+				samples.size(),
+				samples.stream().mapToDouble(Sample::averageMspt).average().orElse(0),
+				samples.stream().mapToDouble(Sample::p50Ms).average().orElse(0),
+				samples.stream().mapToDouble(Sample::p95Ms).average().orElse(0),
+				samples.stream().mapToDouble(Sample::p99Ms).average().orElse(0),
+				samples.stream().mapToDouble(Sample::p99Ms).max().orElse(0)
+		);
+	}
+
+	private static double parse(String value) {
+		return Double.parseDouble(value.replace(',', '.'));
+	}
+}
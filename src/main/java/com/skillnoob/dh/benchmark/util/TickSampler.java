@@ -0,0 +1,76 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.TickSummary;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Periodically runs "tick query" on the server during a phase of a run, to measure how much a pregen slows down the game loop.
+ * The answers are parsed by a {@link TickLogParser}, the server output has to be passed to {@link #accept(long, String)},
+ * as it is read by whoever waits for the server's log messages.
+ */
+public class TickSampler implements AutoCloseable {
+	public static final String COMMAND = "tick query";
+
+	private final int intervalSeconds;
+	private final Consumer<String> executeCommand;
+	private TickLogParser parser = null;
+	private Thread queryThread = null;
+
+	public TickSampler(int intervalSeconds, Consumer<String> executeCommand) {
+		this.intervalSeconds = intervalSeconds;
+		this.executeCommand = executeCommand;
+	}
+
+	/**
+	 * Starts the phase at the given time and queries in the background from then on.
+	 * The first query is sent after one interval, so it covers only ticks of the phase.
+	 */
+	public synchronized void start(long nanos) {
+		if (parser != null) {
+			return;
+		}
+
+		parser = new TickLogParser(nanos, intervalSeconds);
+		queryThread = new Thread(() -> {
+			while (true) {
+				try {
+					Thread.sleep(TimeUnit.SECONDS.toMillis(intervalSeconds));
+				} catch (InterruptedException e) {
+					return;
+				}
+				executeCommand.accept(COMMAND);
+			}
+		}, "TickSampler-Thread");
+		queryThread.setDaemon(true);
+		queryThread.start();
+	}
+
+	/**
+	 * Evaluates a line of the server output that was read at the given time, lines before the phase started are ignored.
+	 */
+	public synchronized void accept(long nanos, String line) {
+		if (parser != null && parser.accept(nanos, line)) {
+			TickLogParser.Sample sample = parser.lastSample();
+			TraceRecorder.counter("MSPT", sample.averageMspt());
+			TraceRecorder.counter("Tick P99 (ms)", sample.p99Ms());
+		}
+	}
+
+	/**
+	 * Stops querying and summarizes the collected tick times.
+	 * Returns null if the phase never started or the server never answered, e.g. because it predates the tick command.
+	 */
+	public synchronized TickSummary summarize() {
+		close();
+		return parser != null ? parser.summarize() : null;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (queryThread != null) {
+			queryThread.interrupt();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the phases of a campaign as timed spans and counter samples, and exports them in the Chrome trace event format,
+ * which can be opened in Perfetto (https://ui.perfetto.dev) or chrome://tracing.
+ * Spans are "complete" events, so nothing is recorded for a span that is still open when the trace is written.
+ */
+public class TraceRecorder {
+	private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+	private static final long ORIGIN_NANOS = System.nanoTime();
+	private static final long PID = ProcessHandle.current().pid();
+
+	private static final List<Map<String, Object>> events = new ArrayList<>();
+
+	/**
+	 * Opens a span that ends when it is closed. Attributes are given as alternating keys and values.
+	 */
+	public static Span span(String name, Object... attributes) {
+		return new Span(name, attributes);
+	}
+
+	/**
+	 * Records a span that already ended, for phases that are only known afterward, e.g. from the times of log lines.
+	 */
+	public static void completedSpan(String name, long startNanos, long endNanos) {
+		Map<String, Object> event = event(name, "X", startNanos);
+		event.put("dur", (endNanos - startNanos) / 1000.0);
+		add(event);
+	}
+
+	/**
+	 * Records a sample of a counter, which the trace viewer shows as a graph.
+	 */
+	public static void counter(String name, double value) {
+		Map<String, Object> event = event(name, "C", System.nanoTime());
+		event.put("args", Map.of("value", value));
+		add(event);
+	}
+
+	/**
+	 * Writes all events recorded in this session to a trace file. The file is replaced atomically, so it can be rewritten after every run.
+	 */
+	public static void write(Path file) throws IOException {
+		List<Map<String, Object>> snapshot;
+		synchronized (events) {
+			snapshot = new ArrayList<>(events);
+		}
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			GSON.toJson(Map.of("traceEvents", snapshot, "displayTimeUnit", "ms"), writer);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static Map<String, Object> event(String name, String phase, long nanos) {
+		Map<String, Object> event = new LinkedHashMap<>();
+		event.put("name", name);
+		event.put("ph", phase);
+		// Chrome traces use microseconds, the fraction keeps the nanosecond resolution
+		event.put("ts", (nanos - ORIGIN_NANOS) / 1000.0);
+		event.put("pid", PID);
+		event.put("tid", Thread.currentThread().threadId());
+		return event;
+	}
+
+	private static void add(Map<String, Object> event) {
+		synchronized (events) {
+			events.add(event);
+		}
+	}
+
+	public static class Span implements AutoCloseable {
+		private final Map<String, Object> event;
+		private final Map<String, Object> args = new LinkedHashMap<>();
+		private final long start = System.nanoTime();
+		private boolean closed = false;
+
+		private Span(String name, Object... attributes) {
+			event = event(name, "X", start);
+			for (int i = 0; i + 1 < attributes.length; i += 2) {
+				attribute(String.valueOf(attributes[i]), attributes[i + 1]);
+			}
+		}
+
+		/**
+		 * Adds an attribute that is only known while the span is open, e.g. the PID of a process it started.
+		 */
+		public Span attribute(String key, Object value) {
+			args.put(key, value instanceof Number || value instanceof Boolean ? value : String.valueOf(value));
+			return this;
+		}
+
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			event.put("dur", (System.nanoTime() - start) / 1000.0);
+			if (!args.isEmpty()) {
+				event.put("args", args);
+			}
+			add(event);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.skillnoob.dh.benchmark.util;
+
+import com.skillnoob.dh.benchmark.data.PregenTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Captures worlds as templates and restores them, so repetitions can start from an identical world without regenerating it.
+ */
+public class WorldSnapshot {
+	// Files that must never end up in a template, the DH database is what the benchmark measures.
+	private static final List<String> EXCLUDED_FILES = List.of("session.lock", "DistantHorizons.sqlite", "DistantHorizons.sqlite-wal", "DistantHorizons.sqlite-shm");
+
+	// Whether reflinks worked between the filestores of a template and a world, a failure on one storage target says nothing about the others.
+	private static final Map<List<FileStore>, Boolean> reflinkSupported = new ConcurrentHashMap<>();
+
+	// A region file holds 32x32 chunks and starts with a table of their locations, which is 0 for chunks that were never saved.
+	private static final int REGION_CHUNKS = 32;
+	private static final int REGION_HEADER_BYTES = REGION_CHUNKS * REGION_CHUNKS * 4;
+
+	public enum Strategy {
+		REFLINK,
+		PARALLEL_COPY
+	}
+
+	/**
+	 * Copies a world into a template directory, leaving out the lock file and the Distant Horizons database.
+	 */
+	public static void capture(Path world, Path template) throws IOException {
+		FileManager.deleteDirectory(template);
+		Files.createDirectories(template);
+		parallelCopy(world, template, true);
+	}
+
+	/**
+	 * Restores a template into the (empty) world directory.
+	 * On Linux the files are cloned with copy-on-write reflinks (FICLONE) where the filesystem supports it,
+	 * which only copies metadata. Otherwise, the files are copied in parallel.
+	 * Hard links are deliberately not used, because the server rewrites region files in place and would modify the template.
+	 */
+	public static Strategy restore(Path template, Path world) throws IOException {
+		Files.createDirectories(world);
+
+		List<FileStore> stores = List.of(Files.getFileStore(template), Files.getFileStore(world));
+		if (reflinkSupported.getOrDefault(stores, true)) {
+			if (reflinkCopy(template, world)) {
+				reflinkSupported.put(stores, true);
+				return Strategy.REFLINK;
+			}
+
+			// Clean up whatever a failed clone left behind before falling back
+			reflinkSupported.put(stores, false);
+			clearDirectory(world);
+		}
+
+		parallelCopy(template, world, false);
+		return Strategy.PARALLEL_COPY;
+	}
+
+	/**
+	 * Gets the share of the chunks the given pregen tasks cover that exist in a world, from 0 to 1.
+	 * Only the location tables of the region files are read, so this is fast even for large worlds.
+	 */
+	public static double chunkCoverage(Path world, List<PregenTask> tasks) throws IOException {
+		long total = 0;
+		long present = 0;
+		for (PregenTask task : tasks) {
+			Path regionDir = dimensionDir(world, task.dimension()).resolve("region");
+			int minX = (task.centerX() >> 4) - task.radius();
+			int minZ = (task.centerZ() >> 4) - task.radius();
+			int maxX = minX + task.radius() * 2 - 1;
+			int maxZ = minZ + task.radius() * 2 - 1;
+
+			for (int regionX = Math.floorDiv(minX, REGION_CHUNKS); regionX <= Math.floorDiv(maxX, REGION_CHUNKS); regionX++) {
+				for (int regionZ = Math.floorDiv(minZ, REGION_CHUNKS); regionZ <= Math.floorDiv(maxZ, REGION_CHUNKS); regionZ++) {
+					byte[] header = readRegionHeader(regionDir.resolve("r." + regionX + "." + regionZ + ".mca"));
+					for (int x = Math.max(minX, regionX * REGION_CHUNKS); x <= Math.min(maxX, regionX * REGION_CHUNKS + REGION_CHUNKS - 1); x++) {
+						for (int z = Math.max(minZ, regionZ * REGION_CHUNKS); z <= Math.min(maxZ, regionZ * REGION_CHUNKS + REGION_CHUNKS - 1); z++) {
+							total++;
+							int offset = (Math.floorMod(x, REGION_CHUNKS) + Math.floorMod(z, REGION_CHUNKS) * REGION_CHUNKS) * 4;
+							if (header[offset] != 0 || header[offset + 1] != 0 || header[offset + 2] != 0 || header[offset + 3] != 0) {
+								present++;
+							}
+						}
+					}
+				}
+			}
+		}
+		return total > 0 ? (double) present / total : 0;
+	}
+
+	/**
+	 * Gets the directory a dimension is saved in, which for the vanilla dimensions doesn't follow the scheme of datapack dimensions.
+	 */
+	private static Path dimensionDir(Path world, String dimension) {
+		return switch (dimension) {
+			case PregenTask.DEFAULT_DIMENSION -> world;
+			case "minecraft:the_nether" -> world.resolve("DIM-1");
+			case "minecraft:the_end" -> world.resolve("DIM1");
+			default -> {
+				String[] parts = dimension.split(":", 2);
+				yield parts.length == 2 ? world.resolve(Paths.get("dimensions", parts[0], parts[1])) : world.resolve(Paths.get("dimensions", "minecraft", dimension));
+			}
+		};
+	}
+
+	/**
+	 * Reads the location table of a region file, which is all zeros if the file is missing or truncated.
+	 */
+	private static byte[] readRegionHeader(Path regionFile) throws IOException {
+		byte[] header = new byte[REGION_HEADER_BYTES];
+		if (Files.isRegularFile(regionFile)) {
+			try (InputStream input = Files.newInputStream(regionFile)) {
+				input.readNBytes(header, 0, REGION_HEADER_BYTES);
+			}
+		}
+		return header;
+	}
+
+	/**
+	 * Clones the template using "cp --reflink=always", which fails instead of silently copying when reflinks are unsupported.
+	 */
+	private static boolean reflinkCopy(Path source, Path target) {
+		if (!System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")) {
+			return false;
+		}
+
+		try {
+			Process process = new ProcessBuilder("cp", "-a", "--reflink=always", source.toAbsolutePath() + "/.", target.toAbsolutePath().toString())
+					.redirectErrorStream(true)
+					.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+					.start();
+			if (!process.waitFor(10, TimeUnit.MINUTES)) {
+				process.destroyForcibly();
+				return false;
+			}
+			return process.exitValue() == 0;
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Copies a directory tree, creating the directories first and then copying all files in parallel.
+	 */
+	private static void parallelCopy(Path source, Path target, boolean skipExcluded) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (Stream<Path> paths = Files.walk(source)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				if (skipExcluded && EXCLUDED_FILES.contains(path.getFileName().toString())) {
+					continue;
+				}
+
+				if (Files.isDirectory(path)) {
+					Files.createDirectories(target.resolve(source.relativize(path)));
+				} else {
+					files.add(path);
+				}
+			}
+		}
+
+		try {
+			files.parallelStream().forEach(file -> {
+				try {
+					Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Deletes the contents of a directory, but keeps the directory itself, which may be a link to another storage target.
+	 */
+	private static void clearDirectory(Path directory) throws IOException {
+		try (Stream<Path> children = Files.list(directory)) {
+			for (Path child : (Iterable<Path>) children::iterator) {
+				if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+					FileManager.deleteDirectory(child);
+				} else {
+					Files.delete(child);
+				}
+			}
+		}
+	}
+}